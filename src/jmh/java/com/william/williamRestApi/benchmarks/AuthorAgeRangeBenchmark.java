@@ -0,0 +1,98 @@
+package com.william.williamRestApi.benchmarks;
+
+import com.william.williamRestApi.WilliamRestApiApplication;
+import com.william.williamRestApi.domain.entities.AuthorEntity;
+import com.william.williamRestApi.reposotories.AgeBucket;
+import com.william.williamRestApi.services.AuthorService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Age range pages and the age histogram over 10M authors. The query plans are printed at setup so the run
+ * shows whether idx_authors_age_id is used. This needs Postgres: it targets the database in
+ * -Dbenchmark.jdbcUrl (default jdbc:postgresql://localhost:5434/postgres) with DB_USERNAME/DB_PASSWORD, and
+ * seeds it with generate_series on the first run. Point it at a scratch database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthorAgeRangeBenchmark {
+
+    private static final long AUTHOR_COUNT = 10_000_000L;
+
+    private ConfigurableApplicationContext context;
+    private AuthorService authorService;
+    private Integer secondPageAge;
+    private Long secondPageId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(WilliamRestApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=" + System.getProperty("benchmark.jdbcUrl",
+                                "jdbc:postgresql://localhost:5434/postgres"),
+                        "--logging.level.root=WARN");
+        authorService = context.getBean(AuthorService.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Long authors = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM authors", Long.class);
+        if (authors < AUTHOR_COUNT) {
+            jdbcTemplate.update("""
+                    INSERT INTO authors (id, name, age, version)
+                    SELECT g, 'Author ' || g, (random() * 100)::int, 0
+                    FROM generate_series((SELECT COALESCE(MAX(id), 0) + 1 FROM authors), ?) g
+                    """, AUTHOR_COUNT);
+            jdbcTemplate.execute("SELECT setval('author_id_seq', (SELECT MAX(id) FROM authors))");
+            jdbcTemplate.execute("VACUUM ANALYZE authors");
+        }
+
+        List<AuthorEntity> firstPage = authorService.findAllByAgeBetween(30, 40, null, null, 20);
+        secondPageAge = firstPage.get(firstPage.size() - 1).getAge();
+        secondPageId = firstPage.get(firstPage.size() - 1).getId();
+
+        printPlan(jdbcTemplate, "first range page", """
+                SELECT * FROM authors WHERE age BETWEEN 30 AND 40 ORDER BY age, id LIMIT 21
+                """);
+        printPlan(jdbcTemplate, "next range page", """
+                SELECT * FROM authors WHERE age <= 40 AND (age > %d OR (age = %d AND id > %d)) ORDER BY age, id LIMIT 21
+                """.formatted(secondPageAge, secondPageAge, secondPageId));
+        printPlan(jdbcTemplate, "histogram", """
+                SELECT (age / 10) * 10, COUNT(*), AVG(age)::float8 FROM authors WHERE age BETWEEN 30 AND 40 GROUP BY 1 ORDER BY 1
+                """);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<AuthorEntity> firstRangePage() {
+        return authorService.findAllByAgeBetween(30, 40, null, null, 21);
+    }
+
+    @Benchmark
+    public List<AuthorEntity> nextRangePage() {
+        return authorService.findAllByAgeBetween(30, 40, secondPageAge, secondPageId, 21);
+    }
+
+    @Benchmark
+    public List<AgeBucket> narrowHistogram() {
+        return authorService.ageHistogram(10, 30, 40);
+    }
+
+    private static void printPlan(JdbcTemplate jdbcTemplate, String label, String sql) {
+        System.out.println("# Plan for " + label + ":");
+        jdbcTemplate.queryForList("EXPLAIN " + sql, String.class).forEach(line -> System.out.println("#   " + line));
+    }
+}
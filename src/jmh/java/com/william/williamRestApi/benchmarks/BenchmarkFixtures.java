@@ -0,0 +1,52 @@
+package com.william.williamRestApi.benchmarks;
+
+import com.william.williamRestApi.TestDataUtil;
+import com.william.williamRestApi.domain.dto.BookDto;
+import com.william.williamRestApi.domain.entities.AuthorEntity;
+import com.william.williamRestApi.domain.entities.BookEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk variants of the {@link TestDataUtil} fixtures, so benchmarks and integration tests share the same data shapes.
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static List<AuthorEntity> authorEntities(int count) {
+        List<AuthorEntity> authors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            AuthorEntity author = TestDataUtil.createTestAuthorA();
+            author.setId((long) i + 1);
+            author.setName(author.getName() + " " + i);
+            authors.add(author);
+        }
+        return authors;
+    }
+
+    static List<BookEntity> bookEntities(int count) {
+        AuthorEntity author = TestDataUtil.createTestAuthorA();
+        List<BookEntity> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BookEntity book = TestDataUtil.createTestBookA(author);
+            book.setIsbn(book.getIsbn() + "-" + i);
+            book.setTitle(book.getTitle() + " " + i);
+            books.add(book);
+        }
+        return books;
+    }
+
+    static List<BookDto> bookDtos(int count) {
+        List<BookDto> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BookDto book = TestDataUtil.createTestBookDtoA(TestDataUtil.createTestAuthorDtoA());
+            book.setIsbn(book.getIsbn() + "-" + i);
+            book.setTitle(book.getTitle() + " " + i);
+            books.add(book);
+        }
+        return books;
+    }
+}
@@ -0,0 +1,113 @@
+package com.william.williamRestApi.benchmarks;
+
+import com.william.williamRestApi.WilliamRestApiApplication;
+import com.william.williamRestApi.domain.entities.AuthorEntity;
+import com.william.williamRestApi.domain.entities.BookEntity;
+import com.william.williamRestApi.services.AuthorService;
+import com.william.williamRestApi.services.BookService;
+import com.william.williamRestApi.services.UpsertResult;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /books pages with the Hibernate second-level and query cache off and on. Besides the timings, the
+ * statements and requests counters give the JDBC round trips per page: once warm, the cached run answers
+ * repeated pages without touching the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookPageCacheBenchmark {
+
+    private static final int BOOK_COUNT = 1000;
+    private static final int AUTHOR_COUNT = 50;
+    private static final int PAGE_COUNT = 10;
+
+    @Param({"false", "true"})
+    private boolean secondLevelCache;
+
+    private ConfigurableApplicationContext context;
+    private Statistics statistics;
+    private HttpClient httpClient;
+    private URI[] pageUris;
+    private int nextPage;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RoundTrips {
+        public long statements;
+        public long requests;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            statements = 0;
+            requests = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(WilliamRestApiApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:pagecache;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.r2dbc.username=sa",
+                        "--spring.r2dbc.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=" + secondLevelCache,
+                        "--spring.jpa.properties.hibernate.cache.use_query_cache=" + secondLevelCache,
+                        "--logging.level.root=WARN");
+
+        List<AuthorEntity> authors = context.getBean(AuthorService.class)
+                .saveAuthors(BenchmarkFixtures.authorEntities(AUTHOR_COUNT)).stream()
+                .map(UpsertResult::getEntity)
+                .toList();
+        List<BookEntity> books = BenchmarkFixtures.bookEntities(BOOK_COUNT);
+        for (int i = 0; i < books.size(); i++) {
+            books.get(i).setAuthorEntity(authors.get(i % AUTHOR_COUNT));
+        }
+        context.getBean(BookService.class).createUpdateBooks(books, true);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        String port = context.getEnvironment().getProperty("local.server.port");
+        pageUris = new URI[PAGE_COUNT];
+        for (int page = 0; page < PAGE_COUNT; page++) {
+            pageUris[page] = URI.create("http://localhost:" + port + "/books?size=20&page=" + page);
+        }
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        httpClient.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int listBooksPage(RoundTrips roundTrips) throws Exception {
+        long before = statistics.getPrepareStatementCount();
+        HttpResponse<byte[]> response = httpClient.send(
+                HttpRequest.newBuilder(pageUris[nextPage]).GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+        nextPage = (nextPage + 1) % PAGE_COUNT;
+        roundTrips.statements += statistics.getPrepareStatementCount() - before;
+        roundTrips.requests++;
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,77 @@
+package com.william.williamRestApi.benchmarks;
+
+import com.william.williamRestApi.WilliamRestApiApplication;
+import com.william.williamRestApi.domain.entities.BookEntity;
+import com.william.williamRestApi.services.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test for the web tier: 256 concurrent clients page through /books on a server running either Tomcat's
+ * platform-thread pool or virtual threads with the pool-sized request limiter. SampleTime mode reports p99
+ * latency next to the throughput numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(256)
+@Fork(1)
+public class ConcurrencyBenchmark {
+
+    private static final int BOOK_COUNT = 1000;
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private URI pageUri;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(WilliamRestApiApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.url=jdbc:h2:mem:concurrency;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.r2dbc.username=sa",
+                        "--spring.r2dbc.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--app.db-limiter.acquire-timeout=30s",
+                        "--logging.level.root=WARN");
+
+        List<BookEntity> books = BenchmarkFixtures.bookEntities(BOOK_COUNT);
+        books.forEach(book -> book.setAuthorEntity(null));
+        context.getBean(BookService.class).createUpdateBooks(books, true);
+
+        String port = context.getEnvironment().getProperty("local.server.port");
+        pageUri = URI.create("http://localhost:" + port + "/books?size=20&page=3");
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        httpClient.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int listBooksPage() throws Exception {
+        HttpResponse<byte[]> response = httpClient.send(
+                HttpRequest.newBuilder(pageUri).GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,113 @@
+package com.william.williamRestApi.benchmarks;
+
+import com.william.williamRestApi.WilliamRestApiApplication;
+import com.william.williamRestApi.domain.entities.BookEntity;
+import com.william.williamRestApi.services.BookService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bursts of concurrent BookService.findOne calls for one isbn, with single-flight coalescing off (max-in-flight
+ * 0) and on. The Spring and Hibernate caches are off so every uncoalesced lookup reaches the database. The
+ * statements counter divided by bursts gives the SELECTs per burst: it grows with readers without coalescing
+ * and stays near one with it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HotKeyLookupBenchmark {
+
+    @Param({"0", "10000"})
+    private int maxInFlight;
+
+    @Param({"1", "16", "64", "256"})
+    private int readers;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private Statistics statistics;
+    private ExecutorService executor;
+    private String hotIsbn;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Queries {
+        public long statements;
+        public long bursts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            statements = 0;
+            bursts = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(WilliamRestApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:hotkey;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.r2dbc.username=sa",
+                        "--spring.r2dbc.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.cache.type=none",
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "--spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                        "--app.lookups.single-flight.max-in-flight=" + maxInFlight,
+                        "--logging.level.root=WARN");
+        bookService = context.getBean(BookService.class);
+        List<BookEntity> books = BenchmarkFixtures.bookEntities(100);
+        bookService.createUpdateBooks(books, true);
+        hotIsbn = books.get(0).getIsbn();
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int hotKeyBurst(Queries queries) throws Exception {
+        long before = statistics.getPrepareStatementCount();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Optional<BookEntity>>> lookups = new ArrayList<>(readers);
+        for (int i = 0; i < readers; i++) {
+            lookups.add(executor.submit(() -> {
+                start.await();
+                return bookService.findOne(hotIsbn);
+            }));
+        }
+        start.countDown();
+        int found = 0;
+        for (Future<Optional<BookEntity>> lookup : lookups) {
+            found += lookup.get().isPresent() ? 1 : 0;
+        }
+        queries.statements += statistics.getPrepareStatementCount() - before;
+        queries.bursts++;
+        return found;
+    }
+}
@@ -0,0 +1,47 @@
+package com.william.williamRestApi.benchmarks;
+
+import com.william.williamRestApi.TestDataUtil;
+import com.william.williamRestApi.domain.dto.BookDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"20", "1000"})
+    private int pageSize;
+
+    private JsonMapper jsonMapper;
+    private BookDto bookDto;
+    private Page<BookDto> bookDtoPage;
+
+    @Setup
+    public void setUp() {
+        jsonMapper = JsonMapper.builder().build();
+        bookDto = TestDataUtil.createTestBookDtoA(TestDataUtil.createTestAuthorDtoA());
+        bookDtoPage = new PageImpl<>(
+                BenchmarkFixtures.bookDtos(pageSize),
+                PageRequest.of(0, pageSize),
+                pageSize * 10L);
+    }
+
+    @Benchmark
+    public byte[] serializeBookDto() {
+        return jsonMapper.writeValueAsBytes(bookDto);
+    }
+
+    @Benchmark
+    public byte[] serializeBookDtoPage() {
+        return jsonMapper.writeValueAsBytes(bookDtoPage);
+    }
+}
@@ -0,0 +1,57 @@
+package com.william.williamRestApi.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the blocking /books and the R2DBC-backed /v2/books page reads at high concurrency. R2DBC has no H2
+ * driver on the benchmark classpath, so this targets a running instance against Postgres, by default
+ * http://localhost:8080 (override with -Dbenchmark.baseUrl). Seed it with a few thousand books first.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(512)
+@Fork(1)
+public class ReadApiBenchmark {
+
+    private HttpClient httpClient;
+    private URI blockingPageUri;
+    private URI reactivePageUri;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String baseUrl = System.getProperty("benchmark.baseUrl", "http://localhost:8080");
+        blockingPageUri = URI.create(baseUrl + "/books?cursor=&size=20");
+        reactivePageUri = URI.create(baseUrl + "/v2/books?size=20");
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        httpClient.close();
+    }
+
+    @Benchmark
+    public int blockingBooksPage() throws Exception {
+        return get(blockingPageUri);
+    }
+
+    @Benchmark
+    public int reactiveBooksPage() throws Exception {
+        return get(reactivePageUri);
+    }
+
+    private int get(URI uri) throws Exception {
+        HttpResponse<byte[]> response = httpClient.send(
+                HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,110 @@
+package com.william.williamRestApi.benchmarks;
+
+import com.william.williamRestApi.WilliamRestApiApplication;
+import com.william.williamRestApi.domain.entities.AuthorEntity;
+import com.william.williamRestApi.domain.entities.BookEntity;
+import com.william.williamRestApi.services.AuthorService;
+import com.william.williamRestApi.services.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives the service layer against an in-memory H2 database so the JPA/Hibernate cost can be tracked without Postgres.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    private static final int BOOK_COUNT = 1000;
+    private static final int AUTHOR_COUNT = 100;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private AuthorService authorService;
+
+    private String isbn;
+    private Long authorId;
+    private Pageable firstPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(WilliamRestApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.r2dbc.username=sa",
+                        "--spring.r2dbc.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--logging.level.root=WARN");
+        bookService = context.getBean(BookService.class);
+        authorService = context.getBean(AuthorService.class);
+
+        List<AuthorEntity> authors = BenchmarkFixtures.authorEntities(AUTHOR_COUNT);
+        for (AuthorEntity author : authors) {
+            author.setId(null);
+            authorService.saveAuthor(author);
+        }
+        List<BookEntity> books = BenchmarkFixtures.bookEntities(BOOK_COUNT);
+        for (int i = 0; i < books.size(); i++) {
+            books.get(i).setAuthorEntity(authors.get(i % AUTHOR_COUNT));
+        }
+        // Books linked by author id are written with a Postgres ON CONFLICT upsert, which H2 does not speak.
+        bookService.createUpdateBooks(books, true);
+
+        isbn = books.get(BOOK_COUNT / 2).getIsbn();
+        authorId = authors.get(AUTHOR_COUNT / 2).getId();
+        firstPage = PageRequest.of(0, 20);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<BookEntity> bookFindOne() {
+        return bookService.findOne(isbn);
+    }
+
+    @Benchmark
+    public Page<BookEntity> bookFindAllPage() {
+        return bookService.findAll(firstPage);
+    }
+
+    @Benchmark
+    public Slice<BookEntity> bookFindSlice() {
+        return bookService.findSlice(firstPage);
+    }
+
+    @Benchmark
+    public boolean bookIsExists() {
+        return bookService.isExists(isbn);
+    }
+
+    @Benchmark
+    public Optional<AuthorEntity> authorFindOne() {
+        return authorService.findOne(authorId);
+    }
+
+    @Benchmark
+    public List<AuthorEntity> authorFindAll() {
+        return authorService.findAll();
+    }
+}
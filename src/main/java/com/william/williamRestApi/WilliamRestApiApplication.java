@@ -2,12 +2,16 @@ package com.william.williamRestApi;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
 
 @SpringBootApplication
 public class WilliamRestApiApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(WilliamRestApiApplication.class, args);
+		ConfigurableApplicationContext context = SpringApplication.run(WilliamRestApiApplication.class, args);
+		if (context.getEnvironment().containsProperty("app.books.import.file")) {
+			System.exit(SpringApplication.exit(context));
+		}
 	}
 
 }
@@ -0,0 +1,98 @@
+package com.william.williamRestApi.config;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A concurrency limit that follows latency, in the style of a gradient limiter. Every completed request feeds
+ * its latency into a short and a long moving average. While the short average stays within TOLERANCE of the
+ * long one the limit grows by about sqrt(limit) per sample; once requests get slower than that the limit shrinks
+ * in proportion (by at most half per sample). A request that failed with a 5xx cuts the limit by BACKOFF instead,
+ * since a failing database often answers quickly.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double TOLERANCE = 1.5;
+    private static final double BACKOFF = 0.9;
+    private static final double SMOOTHING = 0.2;
+    private static final double SHORT_WINDOW = 10;
+    private static final double LONG_WINDOW = 500;
+
+    private ReentrantLock lock = new ReentrantLock();
+    private int minLimit;
+    private int maxLimit;
+    private double limit;
+    private int inFlight;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Takes a slot if fewer than the current limit are in use. Every successful call must be paired with
+     * {@link #release}.
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight >= (int) limit) {
+                return false;
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(long rttNanos, boolean failed) {
+        lock.lock();
+        try {
+            int inFlightBefore = inFlight--;
+            if (failed) {
+                limit = Math.max(minLimit, limit * BACKOFF);
+                return;
+            }
+            shortRttNanos = average(shortRttNanos, rttNanos, SHORT_WINDOW);
+            longRttNanos = average(longRttNanos, rttNanos, LONG_WINDOW);
+            // After a slow spell the long average lags behind; let it catch up with recovered latency sooner.
+            if (longRttNanos > 2 * shortRttNanos) {
+                longRttNanos *= 0.95;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / shortRttNanos));
+            // Traffic well below the limit says nothing about whether a higher limit would be safe.
+            if (gradient == 1.0 && inFlightBefore < limit / 2) {
+                return;
+            }
+            double target = limit * gradient + Math.sqrt(limit);
+            limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static double average(double current, long sample, double window) {
+        return current == 0 ? sample : current + (sample - current) / window;
+    }
+}
@@ -0,0 +1,25 @@
+package com.william.williamRestApi.config;
+
+import org.springframework.boot.EnvironmentPostProcessor;
+import org.springframework.boot.SpringApplication;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+
+/**
+ * A command line import has no use for the web server, so with app.books.import.file set the application starts
+ * without one unless spring.main.web-application-type says otherwise. Registered in META-INF/spring.factories.
+ */
+public class BookImportEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    private static final String PROPERTY_SOURCE_NAME = "bookImportDefaults";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if (environment.containsProperty("app.books.import.file")) {
+            environment.getPropertySources().addLast(new MapPropertySource(PROPERTY_SOURCE_NAME,
+                    Map.of("spring.main.web-application-type", "none")));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.william.williamRestApi.config;
+
+import com.william.williamRestApi.reposotories.AuthorRepository;
+import com.william.williamRestApi.reposotories.BookRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String BOOKS_CACHE = "books";
+
+    public static final String AUTHORS_CACHE = "authors";
+
+    @Bean
+    public HibernateCacheMetrics hibernateCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        return new HibernateCacheMetrics(entityManagerFactory.unwrap(SessionFactory.class).getStatistics(),
+                List.of(BOOKS_CACHE, AUTHORS_CACHE),
+                List.of(BookRepository.QUERY_CACHE_REGION, AuthorRepository.QUERY_CACHE_REGION));
+    }
+}
@@ -0,0 +1,40 @@
+package com.william.williamRestApi.config;
+
+import com.william.williamRestApi.config.ConcurrencyLimitFilter.EndpointClass;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.Map;
+
+/**
+ * Active with app.concurrency-limit.enabled=true. Each endpoint class starts at its initial limit and then
+ * moves between 1 and its max limit as latency changes.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.concurrency-limit.enabled", havingValue = "true")
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            MeterRegistry meterRegistry,
+            @Value("${app.concurrency-limit.read.initial-limit:40}") int readInitial,
+            @Value("${app.concurrency-limit.read.max-limit:200}") int readMax,
+            @Value("${app.concurrency-limit.write.initial-limit:20}") int writeInitial,
+            @Value("${app.concurrency-limit.write.max-limit:100}") int writeMax,
+            @Value("${app.concurrency-limit.bulk.initial-limit:4}") int bulkInitial,
+            @Value("${app.concurrency-limit.bulk.max-limit:16}") int bulkMax) {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(Map.of(
+                EndpointClass.READ, new AdaptiveConcurrencyLimit(readInitial, 1, readMax),
+                EndpointClass.WRITE, new AdaptiveConcurrencyLimit(writeInitial, 1, writeMax),
+                EndpointClass.BULK, new AdaptiveConcurrencyLimit(bulkInitial, 1, bulkMax)), meterRegistry);
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        // Shed before anything else spends work on the request, including the virtual-thread database limiter.
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
@@ -0,0 +1,118 @@
+package com.william.williamRestApi.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sheds load per endpoint class, so slow bulk work or a backlog of writes cannot take the reads down with it.
+ * Each class has its own {@link AdaptiveConcurrencyLimit}; a request over its class's limit is answered with
+ * 503 and Retry-After right away instead of queueing in Tomcat.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    public enum EndpointClass {
+        /** Single-resource and paged GETs. */
+        READ,
+        /** Single-resource PUT, PATCH, POST and DELETE. */
+        WRITE,
+        /** :batch writes, imports, streaming exports and the unpaged author list, which handle many rows. */
+        BULK;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private Map<EndpointClass, AdaptiveConcurrencyLimit> limits;
+    private Map<EndpointClass, Counter> rejections = new EnumMap<>(EndpointClass.class);
+
+    public ConcurrencyLimitFilter(Map<EndpointClass, AdaptiveConcurrencyLimit> limits, MeterRegistry meterRegistry) {
+        this.limits = new EnumMap<>(limits);
+        this.limits.forEach((endpointClass, limit) -> {
+            Gauge.builder("http.server.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                    .description("Current adaptive concurrency limit")
+                    .tag("class", endpointClass.tag())
+                    .register(meterRegistry);
+            Gauge.builder("http.server.concurrency.in.flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                    .description("Requests currently holding a concurrency slot")
+                    .tag("class", endpointClass.tag())
+                    .register(meterRegistry);
+            rejections.put(endpointClass, Counter.builder("http.server.concurrency.rejected")
+                    .description("Requests answered with 503 because their class was at its limit")
+                    .tag("class", endpointClass.tag())
+                    .register(meterRegistry));
+        });
+    }
+
+    static EndpointClass classify(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path.endsWith(":batch") || path.endsWith(":import") || path.endsWith("/export")) {
+            return EndpointClass.BULK;
+        }
+        String method = request.getMethod();
+        if (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)) {
+            return isUnboundedAuthorList(request, path) ? EndpointClass.BULK : EndpointClass.READ;
+        }
+        return EndpointClass.WRITE;
+    }
+
+    /**
+     * GET /authors without a cursor or age range returns every author.
+     */
+    private static boolean isUnboundedAuthorList(HttpServletRequest request, String path) {
+        return path.equals("/authors") && request.getParameter("cursor") == null
+                && request.getParameter("minAge") == null && request.getParameter("maxAge") == null;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        EndpointClass endpointClass = classify(request);
+        AdaptiveConcurrencyLimit limit = limits.get(endpointClass);
+        if (!limit.tryAcquire()) {
+            rejections.get(endpointClass).increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+
+        long start = System.nanoTime();
+        AtomicBoolean threw = new AtomicBoolean(true);
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                limit.release(System.nanoTime() - start, threw.get() || response.getStatus() >= 500);
+            }
+        };
+        try {
+            filterChain.doFilter(request, response);
+            threw.set(false);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingAsyncListener(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+}
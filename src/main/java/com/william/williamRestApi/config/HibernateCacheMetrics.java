@@ -0,0 +1,51 @@
+package com.william.williamRestApi.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Hit ratios of the Hibernate second-level cache, per entity region and per query cache region. A region
+ * that has not been asked anything yet reports NaN.
+ */
+public class HibernateCacheMetrics implements MeterBinder {
+
+    private Statistics statistics;
+    private List<String> entityRegions;
+    private List<String> queryRegions;
+
+    public HibernateCacheMetrics(Statistics statistics, List<String> entityRegions, List<String> queryRegions) {
+        this.statistics = statistics;
+        this.entityRegions = entityRegions;
+        this.queryRegions = queryRegions;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        entityRegions.forEach(region -> register(registry, "hibernate.cache.hit.ratio", region,
+                statistics::getDomainDataRegionStatistics));
+        queryRegions.forEach(region -> register(registry, "hibernate.query.cache.hit.ratio", region,
+                statistics::getQueryRegionStatistics));
+    }
+
+    private void register(MeterRegistry registry, String name, String region,
+                          Function<String, CacheRegionStatistics> regionStatistics) {
+        Gauge.builder(name, () -> hitRatio(regionStatistics.apply(region)))
+                .tag("region", region)
+                .description("Share of second-level cache lookups answered from the cache")
+                .register(registry);
+    }
+
+    private static double hitRatio(CacheRegionStatistics region) {
+        if (region == null) {
+            return Double.NaN;
+        }
+        long lookups = region.getHitCount() + region.getMissCount();
+        return lookups == 0 ? Double.NaN : (double) region.getHitCount() / lookups;
+    }
+}
@@ -1,18 +0,0 @@
-package com.william.williamRestApi.config;
-
-
-import org.modelmapper.ModelMapper;
-import org.modelmapper.convention.MatchingStrategies;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-
-@Configuration
-public class MapperConfig {
-
-    @Bean
-    public ModelMapper modelMapper() {
-       ModelMapper modelMapper=  new ModelMapper();
-       modelMapper.getConfiguration().setMatchingStrategy(MatchingStrategies.LOOSE);
-       return modelMapper;
-    }
-}
@@ -0,0 +1,64 @@
+package com.william.williamRestApi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Per-request SQL metrics and statement budgets. Latency histograms for the endpoints, the mappers and the
+ * Hikari connection wait are configured through management.metrics.distribution.* in application.properties.
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    /**
+     * Wraps each connection pool (the single one, or primary and replica), not the routing DataSource in front
+     * of them, so every statement is counted once.
+     */
+    @Bean
+    public static BeanPostProcessor sqlStatisticsPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return isConnectionPool(bean) ? new SqlStatisticsDataSource((DataSource) bean) : bean;
+            }
+        };
+    }
+
+    /**
+     * A Hikari pool, possibly already wrapped by another post processor.
+     */
+    static boolean isConnectionPool(Object bean) {
+        try {
+            return bean instanceof DataSource dataSource && !(bean instanceof AbstractRoutingDataSource)
+                    && dataSource.isWrapperFor(HikariDataSource.class);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlMetricsFilter> sqlMetricsFilter(
+            MeterRegistry meterRegistry,
+            @Value("${app.sql-budget.default:0}") int defaultBudget,
+            @Value("${app.sql-budget.mode:log}") String mode,
+            @Value("${app.sql-budget.repeat-threshold:5}") int repeatThreshold) {
+        return new FilterRegistrationBean<>(new SqlMetricsFilter(
+                meterRegistry, defaultBudget, "reject".equals(mode), repeatThreshold));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SqlBudgetInterceptor());
+    }
+}
@@ -0,0 +1,30 @@
+package com.william.williamRestApi.config;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+
+/**
+ * Runs the release callback when an async request ends, however it ends. The callback must be idempotent.
+ */
+record ReleasingAsyncListener(Runnable release) implements AsyncListener {
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+        release.run();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        release.run();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+        release.run();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+        event.getAsyncContext().addListener(this);
+    }
+}
@@ -0,0 +1,98 @@
+package com.william.williamRestApi.config;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SQL statements the current request ran, through Hibernate or plain JDBC, and the time spent executing them. The
+ * {@link SqlStatisticsDataSource} adds to it, {@link SqlMetricsFilter} opens and closes it around each request and
+ * leaves the finished record in the {@link #ATTRIBUTE} request attribute. Statements run on threads without an
+ * open record are not counted.
+ * <p>
+ * Statements are also counted per SQL text. Parameters are bound as placeholders, so the same text run again and
+ * again is one query per row: the N+1 pattern.
+ */
+public final class RequestSqlStatistics {
+
+    public static final String ATTRIBUTE = RequestSqlStatistics.class.getName();
+
+    private static final int MAX_DISTINCT_STATEMENTS = 256;
+
+    private static final ThreadLocal<RequestSqlStatistics> CURRENT = new ThreadLocal<>();
+
+    private long statements;
+    private long nanos;
+    private Map<String, Integer> statementCounts = new HashMap<>();
+    private int budget;
+    private boolean rejectOverBudget;
+
+    private RequestSqlStatistics(int budget, boolean rejectOverBudget) {
+        this.budget = budget;
+        this.rejectOverBudget = rejectOverBudget;
+    }
+
+    static RequestSqlStatistics begin(int budget, boolean rejectOverBudget) {
+        RequestSqlStatistics statistics = new RequestSqlStatistics(budget, rejectOverBudget);
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static RequestSqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    void statementPrepared(String sql) {
+        statements++;
+        if (statementCounts.size() < MAX_DISTINCT_STATEMENTS || statementCounts.containsKey(sql)) {
+            statementCounts.merge(sql, 1, Integer::sum);
+        }
+        if (rejectOverBudget && isOverBudget()) {
+            throw new SqlBudgetExceededException(statements, budget, sql);
+        }
+    }
+
+    void statementExecuted(long statementNanos) {
+        nanos += statementNanos;
+    }
+
+    void setBudget(int budget) {
+        this.budget = budget;
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * The statement budget of the handled endpoint, 0 when there is none.
+     */
+    public int getBudget() {
+        return budget;
+    }
+
+    public boolean isOverBudget() {
+        return budget > 0 && statements > budget;
+    }
+
+    /**
+     * Statements whose SQL text ran at least {@code threshold} times, most repeated first.
+     */
+    public Map<String, Integer> getRepeatedStatements(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        statementCounts.entrySet().stream()
+                .filter(entry -> entry.getValue() >= threshold)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+        return Collections.unmodifiableMap(repeated);
+    }
+}
@@ -0,0 +1,17 @@
+package com.william.williamRestApi.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The most SQL statements a request to this handler should run. Going over it is logged and counted, or
+ * rejected with app.sql-budget.mode=reject. Handlers without it fall back to app.sql-budget.default.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SqlBudget {
+
+    int value();
+}
@@ -0,0 +1,24 @@
+package com.william.williamRestApi.config;
+
+/**
+ * Thrown in reject mode (app.sql-budget.mode=reject) when a request runs more SQL statements than its budget.
+ */
+public class SqlBudgetExceededException extends RuntimeException {
+
+    private final long statements;
+    private final int budget;
+
+    public SqlBudgetExceededException(long statements, int budget, String sql) {
+        super("Request ran " + statements + " SQL statements, over its budget of " + budget + ": " + sql);
+        this.statements = statements;
+        this.budget = budget;
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+}
@@ -0,0 +1,24 @@
+package com.william.williamRestApi.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Applies the handler's {@link SqlBudget} to the request's statistics.
+ */
+public class SqlBudgetInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestSqlStatistics statistics = RequestSqlStatistics.current();
+        if (statistics != null && handler instanceof HandlerMethod handlerMethod) {
+            SqlBudget budget = handlerMethod.getMethodAnnotation(SqlBudget.class);
+            if (budget != null) {
+                statistics.setBudget(budget.value());
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,101 @@
+package com.william.williamRestApi.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how many SQL statements each request ran and how long they took, tagged like http.server.requests
+ * with the method and the matched uri template. Next to the request latency this splits database time from
+ * mapping and serialization time.
+ * <p>
+ * Requests over their {@link SqlBudget}, and requests that ran the same SQL text repeatThreshold times or more
+ * (N+1), are logged with the offending statements and counted.
+ */
+public class SqlMetricsFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlMetricsFilter.class);
+
+    private MeterRegistry meterRegistry;
+    private int defaultBudget;
+    private boolean rejectOverBudget;
+    private int repeatThreshold;
+
+    public SqlMetricsFilter(MeterRegistry meterRegistry, int defaultBudget, boolean rejectOverBudget,
+                            int repeatThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.defaultBudget = defaultBudget;
+        this.rejectOverBudget = rejectOverBudget;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestSqlStatistics statistics = RequestSqlStatistics.begin(defaultBudget, rejectOverBudget);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestSqlStatistics.end();
+            request.setAttribute(RequestSqlStatistics.ATTRIBUTE, statistics);
+            Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            record(request.getMethod(), uri == null ? "UNKNOWN" : uri.toString(), statistics);
+        }
+    }
+
+    private void record(String method, String uri, RequestSqlStatistics statistics) {
+        DistributionSummary.builder("http.server.requests.sql.statements")
+                .description("SQL statements executed per request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(statistics.getStatements());
+        Timer.builder("http.server.requests.sql.time")
+                .description("Time per request spent executing SQL statements")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(statistics.getNanos(), TimeUnit.NANOSECONDS);
+
+        if (statistics.isOverBudget()) {
+            log.warn("{} {} ran {} SQL statements, over its budget of {}", method, uri,
+                    statistics.getStatements(), statistics.getBudget());
+            count("http.server.requests.sql.over.budget", "Requests that ran more SQL statements than their budget",
+                    method, uri);
+        }
+        Map<String, Integer> repeated = statistics.getRepeatedStatements(repeatThreshold);
+        if (!repeated.isEmpty()) {
+            repeated.forEach((sql, count) -> log.warn("{} {} ran the same statement {} times (N+1?): {}",
+                    method, uri, count, sql));
+            count("http.server.requests.sql.repeated", "Requests that ran the same SQL statement repeatedly",
+                    method, uri);
+        }
+    }
+
+    private void count(String name, String description, String method, String uri) {
+        Counter.builder(name)
+                .description(description)
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .increment();
+    }
+}
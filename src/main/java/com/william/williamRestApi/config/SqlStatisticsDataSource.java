@@ -0,0 +1,119 @@
+package com.william.williamRestApi.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Counts every statement prepared or run on its connections into the request's {@link RequestSqlStatistics},
+ * before it runs, and times each execution. Sitting under Hibernate and JdbcTemplate alike, it sees the entity
+ * queries as well as the plain JDBC upserts, patches and imports.
+ */
+public class SqlStatisticsDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private static final Set<String> PREPARE_METHODS = Set.of("prepareStatement", "prepareCall");
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    public SqlStatisticsDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    /**
+     * Closes the wrapped pool, since the container sees this bean in its place.
+     */
+    @Override
+    public void close() throws Exception {
+        if (obtainTargetDataSource() instanceof AutoCloseable pool) {
+            pool.close();
+        }
+    }
+
+    private static Connection counting(Connection connection) {
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            if (PREPARE_METHODS.contains(method.getName())) {
+                prepared((String) args[0]);
+            }
+            Object result = invoke(proxy, connection, method, args);
+            return switch (result) {
+                case CallableStatement statement -> timed(CallableStatement.class, statement);
+                case PreparedStatement statement -> timed(PreparedStatement.class, statement);
+                case Statement statement -> timed(Statement.class, statement);
+                case null, default -> result;
+            };
+        });
+    }
+
+    /**
+     * A plain Statement is counted when it runs or batches SQL text, a prepared one when it was prepared.
+     */
+    private static <T extends Statement> T timed(Class<T> type, T statement) {
+        boolean prepared = statement instanceof PreparedStatement;
+        return proxy(type, statement, (proxy, method, args) -> {
+            String name = method.getName();
+            if (!prepared && args != null && args.length > 0 && args[0] instanceof String sql
+                    && (EXECUTE_METHODS.contains(name) || name.equals("addBatch"))) {
+                prepared(sql);
+            }
+            if (!EXECUTE_METHODS.contains(name)) {
+                return invoke(proxy, statement, method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return invoke(proxy, statement, method, args);
+            } finally {
+                RequestSqlStatistics statistics = RequestSqlStatistics.current();
+                if (statistics != null) {
+                    statistics.statementExecuted(System.nanoTime() - start);
+                }
+            }
+        });
+    }
+
+    private static void prepared(String sql) {
+        RequestSqlStatistics statistics = RequestSqlStatistics.current();
+        if (statistics != null) {
+            statistics.statementPrepared(sql);
+        }
+    }
+
+    private static Object invoke(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                break;
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+}
@@ -0,0 +1,49 @@
+package com.william.williamRestApi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * The R2DBC starter registers a reactive transaction manager next to the JPA one, so @Transactional needs to be
+ * told which one the blocking services use. Its ConnectionFactory also switches off Boot's DataSource
+ * auto-configuration, so the JDBC pool is declared here as well.
+ */
+@Configuration
+public class TransactionConfig {
+
+    @Bean
+    @Primary
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+
+    /**
+     * The single spring.datasource.* pool. With app.datasource.replica.url set, DataSourceRoutingConfig declares
+     * the primary and replica pools instead.
+     */
+    @Configuration
+    @ConditionalOnExpression("'${app.datasource.replica.url:}'.isEmpty()")
+    static class SingleDataSourceConfig {
+
+        @Bean
+        @ConfigurationProperties("spring.datasource")
+        public DataSourceProperties dataSourceProperties() {
+            return new DataSourceProperties();
+        }
+
+        @Bean
+        @Primary
+        @ConfigurationProperties("spring.datasource.hikari")
+        public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+            return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.william.williamRestApi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Active with spring.threads.virtual.enabled=true. Spring Boot then serves requests and runs async work
+ * (including the streaming exports) on virtual threads. Requests are not limited as such: each Hikari pool (the
+ * single one, or primary and replica) is wrapped in a {@link ConnectionLimitingDataSource} of its own size, so
+ * only callers that need a JDBC connection wait. Cache hits, /books/search and the R2DBC /v2 reads never do.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                                                    Environment environment) {
+        Duration acquireTimeout = environment.getProperty("app.db-limiter.acquire-timeout", Duration.class,
+                Duration.ofSeconds(2));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!MetricsConfig.isConnectionPool(bean)) {
+                    return bean;
+                }
+                ConnectionLimitingDataSource limited = new ConnectionLimitingDataSource((DataSource) bean,
+                        maximumPoolSize((DataSource) bean), acquireTimeout);
+                Gauge.builder("db.limiter.available", limited, ConnectionLimitingDataSource::availablePermits)
+                        .description("Connection permits left before callers wait for a database connection")
+                        .tag("pool", beanName)
+                        .register(meterRegistry.getObject());
+                return limited;
+            }
+        };
+    }
+
+    private static int maximumPoolSize(DataSource pool) {
+        try {
+            return pool.unwrap(HikariDataSource.class).getMaximumPoolSize();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Not a Hikari pool", e);
+        }
+    }
+
+    @Bean
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            MeterRegistry meterRegistry,
+            @Value("${app.virtual-threads.pinned-threshold:20ms}") Duration threshold) {
+        return new VirtualThreadPinningMonitor(threshold, meterRegistry);
+    }
+}
@@ -1,26 +1,51 @@
 package com.william.williamRestApi.controllers;
 
+import com.william.williamRestApi.config.SqlBudget;
+import com.william.williamRestApi.domain.dto.AgeBucketDto;
 import com.william.williamRestApi.domain.dto.AuthorDto;
+import com.william.williamRestApi.domain.dto.BookDto;
+import com.william.williamRestApi.domain.dto.BatchItemResultDto;
+import com.william.williamRestApi.domain.dto.CursorPageDto;
 import com.william.williamRestApi.domain.entities.AuthorEntity;
+import com.william.williamRestApi.domain.entities.BookEntity;
 import com.william.williamRestApi.mappers.Mapper;
 import com.william.williamRestApi.services.AuthorService;
+import com.william.williamRestApi.services.BookService;
+import com.william.williamRestApi.services.UpsertResult;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 @RestController
 public class AuthorController {
 
+    private static final String EMBED_BOOKS = "books";
+
     private AuthorService authorService;
+    private BookService bookService;
     private Mapper<AuthorEntity, AuthorDto> authorMapper;
+    private Mapper<BookEntity, BookDto> bookMapper;
+    private ObjectMapper objectMapper;
 
-    public AuthorController(AuthorService authorService, Mapper<AuthorEntity, AuthorDto> authorMapper) {
+    public AuthorController(AuthorService authorService, BookService bookService,
+                            Mapper<AuthorEntity, AuthorDto> authorMapper, Mapper<BookEntity, BookDto> bookMapper,
+                            ObjectMapper objectMapper) {
         this.authorService = authorService;
+        this.bookService = bookService;
         this.authorMapper = authorMapper;
+        this.bookMapper = bookMapper;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping(path = "/authors")
@@ -31,41 +56,189 @@ public class AuthorController {
 
     }
 
+    @PostMapping(path = "/authors:batch")
+    public ResponseEntity<List<BatchItemResultDto<AuthorDto>>> createAuthors(@RequestBody List<AuthorDto> authorDtos) {
+        List<AuthorEntity> authorEntities = authorDtos.stream().map(authorMapper::mapFrom).collect(Collectors.toList());
+        List<UpsertResult<AuthorEntity>> results = authorService.saveAuthors(authorEntities);
+        List<BatchItemResultDto<AuthorDto>> batchResult = results.stream()
+                .map(result -> new BatchItemResultDto<>(
+                        result.isCreated() ? HttpStatus.CREATED.value() : HttpStatus.OK.value(),
+                        authorMapper.mapTo(result.getEntity())))
+                .collect(Collectors.toList());
+        return new ResponseEntity<>(batchResult, HttpStatus.OK);
+    }
+
     @GetMapping(path = "/authors")
-    public List<AuthorDto> listAuthors() {
+    public ResponseEntity<List<AuthorDto>> listAuthors(@RequestParam(value = "embed", required = false) String embed,
+                                                       WebRequest webRequest) {
+        if (!isKnownEmbed(embed)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
         List<AuthorEntity>authors = authorService.findAll();
-        return authors.stream().map(authorMapper::mapTo).collect(Collectors.toList());
+        if (embed != null) {
+            return ResponseEntity.ok(toAuthorDtos(authors, embed));
+        }
+        String eTag = ETags.weak(
+                authors.stream().map(author -> author.getId() + ETags.of(author)).collect(Collectors.toList()),
+                authors.size());
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(toAuthorDtos(authors, null));
+    }
+
+    @GetMapping(path = "/authors", params = {"cursor", "!minAge", "!maxAge"})
+    @SqlBudget(2)
+    public ResponseEntity<CursorPageDto<AuthorDto>> listAuthorsByCursor(
+            @RequestParam("cursor") String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "embed", required = false) String embed) {
+
+        if (size < 1 || !isKnownEmbed(embed)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        size = Math.min(size, CursorCodec.MAX_PAGE_SIZE);
+
+        Long afterId = null;
+        if (!cursor.isEmpty()) {
+            try {
+                afterId = Long.valueOf(CursorCodec.decode(cursor, "id", 2)[1]);
+            } catch (IllegalArgumentException e) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+        }
+
+        List<AuthorEntity> authors = authorService.findAllAfterId(afterId, size + 1);
+        String nextCursor = null;
+        if (authors.size() > size) {
+            authors = authors.subList(0, size);
+            nextCursor = CursorCodec.encode("id", String.valueOf(authors.get(size - 1).getId()));
+        }
+        return new ResponseEntity<>(new CursorPageDto<>(toAuthorDtos(authors, embed), nextCursor), HttpStatus.OK);
+    }
+
+    @GetMapping(path = "/authors", params = "minAge")
+    @SqlBudget(2)
+    public ResponseEntity<CursorPageDto<AuthorDto>> listAuthorsByAge(
+            @RequestParam("minAge") int minAge,
+            @RequestParam(value = "maxAge", defaultValue = "2147483647") int maxAge,
+            @RequestParam(value = "cursor", defaultValue = "") String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+
+        if (size < 1 || minAge > maxAge) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        size = Math.min(size, CursorCodec.MAX_PAGE_SIZE);
+
+        Integer afterAge = null;
+        Long afterId = null;
+        if (!cursor.isEmpty()) {
+            try {
+                String[] after = CursorCodec.decode(cursor, "age", 3);
+                afterAge = Integer.valueOf(after[1]);
+                afterId = Long.valueOf(after[2]);
+            } catch (IllegalArgumentException e) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+        }
+
+        List<AuthorEntity> authors = authorService.findAllByAgeBetween(minAge, maxAge, afterAge, afterId, size + 1);
+        String nextCursor = null;
+        if (authors.size() > size) {
+            authors = authors.subList(0, size);
+            AuthorEntity last = authors.get(size - 1);
+            nextCursor = CursorCodec.encode("age", String.valueOf(last.getAge()), String.valueOf(last.getId()));
+        }
+        return new ResponseEntity<>(new CursorPageDto<>(toAuthorDtos(authors, null), nextCursor), HttpStatus.OK);
+    }
+
+    @GetMapping(path = "/authors", params = {"maxAge", "!minAge"})
+    @SqlBudget(2)
+    public ResponseEntity<CursorPageDto<AuthorDto>> listAuthorsByMaxAge(
+            @RequestParam("maxAge") int maxAge,
+            @RequestParam(value = "cursor", defaultValue = "") String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        return listAuthorsByAge(0, maxAge, cursor, size);
+    }
+
+    @GetMapping(path = "/authors/age-histogram")
+    @SqlBudget(1)
+    public ResponseEntity<List<AgeBucketDto>> getAgeHistogram(
+            @RequestParam(value = "bucketSize", defaultValue = "10") int bucketSize,
+            @RequestParam(value = "minAge", defaultValue = "0") int minAge,
+            @RequestParam(value = "maxAge", defaultValue = "2147483647") int maxAge) {
+        if (bucketSize < 1 || minAge > maxAge) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        List<AgeBucketDto> buckets = authorService.ageHistogram(bucketSize, minAge, maxAge).stream()
+                .map(bucket -> new AgeBucketDto(bucket.getBucketStart(),
+                        (int) Math.min((long) bucket.getBucketStart() + bucketSize - 1, Integer.MAX_VALUE),
+                        bucket.getAuthorCount(), bucket.getAverageAge()))
+                .collect(Collectors.toList());
+        return new ResponseEntity<>(buckets, HttpStatus.OK);
+    }
+
+    @GetMapping(path = "/authors/export")
+    public ResponseEntity<StreamingResponseBody> exportAuthors() {
+        StreamingResponseBody body = outputStream -> authorService.exportAll(
+                authorEntity -> NdjsonWriter.writeLine(objectMapper, outputStream, authorMapper.mapTo(authorEntity)));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @GetMapping(path = "/authors/{id}")
-    public ResponseEntity<AuthorDto> getAuthor(@PathVariable("id") Long id) {
+    @SqlBudget(2)
+    public ResponseEntity<AuthorDto> getAuthor(@PathVariable("id") Long id,
+                                               @RequestParam(value = "embed", required = false) String embed,
+                                               WebRequest webRequest) {
+       if (!isKnownEmbed(embed)) {
+           return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+       }
        Optional<AuthorEntity> foundAuthor =  authorService.findOne(id);
        return foundAuthor.map(authorEntity -> {
+           if (embed != null) {
+               return new ResponseEntity<>(toAuthorDtos(List.of(authorEntity), embed).get(0), HttpStatus.OK);
+           }
+           String eTag = ETags.of(authorEntity);
+           if (webRequest.checkNotModified(eTag)) {
+               return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).<AuthorDto>build();
+           }
            AuthorDto authorDto = authorMapper.mapTo(authorEntity);
-           return new ResponseEntity<>(authorDto, HttpStatus.OK);
+           return ResponseEntity.ok().eTag(eTag).body(authorDto);
        }).orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    @GetMapping(path = "/authors/{id}/books")
+    @SqlBudget(2)
+    public ResponseEntity<List<BookDto>> listAuthorBooks(@PathVariable("id") Long id) {
+        List<BookEntity> books = bookService.findAllByAuthorIds(List.of(id));
+        if (books.isEmpty() && !authorService.isExists(id)) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(books.stream().map(bookMapper::mapTo).collect(Collectors.toList()), HttpStatus.OK);
+    }
+
     @PutMapping(path = "/authors/{id}")
-    public ResponseEntity<AuthorDto> updateAuthor(@PathVariable("id") Long id, @RequestBody AuthorDto authorDto) {
+    public ResponseEntity<AuthorDto> updateAuthor(@PathVariable("id") Long id, @RequestBody AuthorDto authorDto,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
       if (!authorService.isExists(id)) {
           return new ResponseEntity<>(HttpStatus.NOT_FOUND);
       }
 
       authorDto.setId(id);
       AuthorEntity authorEntity = authorMapper.mapFrom(authorDto);
+      authorEntity.setVersion(ETags.ifMatchVersion(ifMatch));
       AuthorEntity savedAuthorEntity = authorService.saveAuthor(authorEntity);
-      return new ResponseEntity<>(authorMapper.mapTo(savedAuthorEntity), HttpStatus.OK);
+      return ResponseEntity.ok().eTag(ETags.of(savedAuthorEntity)).body(authorMapper.mapTo(savedAuthorEntity));
     }
 
     @PatchMapping (path = "/authors/{id}")
-    public ResponseEntity<AuthorDto> partialUpdateAuthor(@PathVariable("id") Long id, @RequestBody AuthorDto authorDto) {
-        if (!authorService.isExists(id)) {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        }
+    public ResponseEntity<AuthorDto> partialUpdateAuthor(@PathVariable("id") Long id, @RequestBody AuthorDto authorDto,
+                                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         AuthorEntity authorEntity = authorMapper.mapFrom(authorDto);
-        AuthorEntity updatedAuthor = authorService.partialUpdate(id, authorEntity);
-        return new ResponseEntity<>(authorMapper.mapTo(updatedAuthor), HttpStatus.OK);
+        authorEntity.setVersion(ETags.ifMatchVersion(ifMatch));
+        return authorService.partialUpdate(id, authorEntity)
+                .map(updatedAuthor -> ResponseEntity.ok().eTag(ETags.of(updatedAuthor)).body(authorMapper.mapTo(updatedAuthor)))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
 
     }
 
@@ -75,4 +248,26 @@ public class AuthorController {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    /**
+     * books is the only relation that can be embedded; anything else, such as a misspelt ?embed=book, is a 400
+     * instead of a silently plain response.
+     */
+    private static boolean isKnownEmbed(String embed) {
+        return embed == null || EMBED_BOOKS.equals(embed);
+    }
+
+    private List<AuthorDto> toAuthorDtos(List<AuthorEntity> authors, String embed) {
+        List<AuthorDto> authorDtos = authors.stream().map(authorMapper::mapTo).collect(Collectors.toList());
+        if (EMBED_BOOKS.equals(embed)) {
+            List<Long> authorIds = authorDtos.stream().map(AuthorDto::getId).collect(Collectors.toList());
+            Map<Long, List<BookDto>> booksByAuthor = bookService.findAllByAuthorIds(authorIds).stream()
+                    .collect(Collectors.groupingBy(
+                            book -> book.getAuthorEntity().getId(),
+                            Collectors.mapping(bookMapper::mapTo, Collectors.toList())));
+            authorDtos.forEach(authorDto ->
+                    authorDto.setBooks(booksByAuthor.getOrDefault(authorDto.getId(), new ArrayList<>())));
+        }
+        return authorDtos;
+    }
+
 }
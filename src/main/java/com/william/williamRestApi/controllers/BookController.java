@@ -1,15 +1,32 @@
 package com.william.williamRestApi.controllers;
 
+import com.william.williamRestApi.config.SqlBudget;
+import com.william.williamRestApi.domain.dto.BatchItemResultDto;
 import com.william.williamRestApi.domain.dto.BookDto;
+import com.william.williamRestApi.domain.dto.BookImportResultDto;
+import com.william.williamRestApi.domain.dto.CursorPageDto;
+import com.william.williamRestApi.domain.dto.SliceDto;
 import com.william.williamRestApi.domain.entities.BookEntity;
 import com.william.williamRestApi.mappers.Mapper;
+import com.william.williamRestApi.services.BookImportResult;
+import com.william.williamRestApi.services.BookImportService;
 import com.william.williamRestApi.services.BookService;
+import com.william.williamRestApi.services.BookWritePipeline;
+import com.william.williamRestApi.services.ImportFormat;
+import com.william.williamRestApi.services.UpsertResult;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -19,54 +36,208 @@ public class BookController {
 
     private Mapper<BookEntity, BookDto> bookMapper;
     private BookService bookService;
+    private BookWritePipeline bookWritePipeline;
+    private BookImportService bookImportService;
+    private ObjectMapper objectMapper;
 
-    public BookController(Mapper<BookEntity, BookDto> bookMapper, BookService bookService) {
+    public BookController(Mapper<BookEntity, BookDto> bookMapper, BookService bookService,
+                          BookWritePipeline bookWritePipeline, BookImportService bookImportService,
+                          ObjectMapper objectMapper) {
         this.bookMapper = bookMapper;
         this.bookService = bookService;
+        this.bookWritePipeline = bookWritePipeline;
+        this.bookImportService = bookImportService;
+        this.objectMapper = objectMapper;
     }
 
 
     @PutMapping("/books/{isbn}")
-    public ResponseEntity<BookDto> createUpdateBook(@PathVariable("isbn") String isbn, @RequestBody BookDto bookDto) {
+    public ResponseEntity<BookDto> createUpdateBook(@PathVariable("isbn") String isbn, @RequestBody BookDto bookDto,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                    @RequestParam(value = "createAuthor", defaultValue = "false") boolean createAuthor) {
+        if (!createAuthor && !hasAuthorId(bookDto)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
 
         BookEntity bookEntity = bookMapper.mapFrom(bookDto);
-        boolean bookExists = bookService.isExists(isbn);
-        BookEntity savedBookEntity = bookService.createUpdateBook(isbn, bookEntity);
+        bookEntity.setVersion(ETags.ifMatchVersion(ifMatch));
+        UpsertResult<BookEntity> result = bookWritePipeline.write(isbn, bookEntity, createAuthor);
+        BookEntity savedBookEntity = result.getEntity();
         BookDto savedUpdatedBookDto = bookMapper.mapTo(savedBookEntity);
 
-        if (bookExists){
-            return new ResponseEntity<>(savedUpdatedBookDto, HttpStatus.OK);
+        if (!result.isCreated()){
+            return ResponseEntity.ok().eTag(ETags.of(savedBookEntity)).body(savedUpdatedBookDto);
         }else {
-            return new ResponseEntity<>(savedUpdatedBookDto, HttpStatus.CREATED);
+            return ResponseEntity.status(HttpStatus.CREATED).eTag(ETags.of(savedBookEntity)).body(savedUpdatedBookDto);
+        }
+    }
+
+    @PutMapping(path = "/books:batch")
+    public ResponseEntity<List<BatchItemResultDto<BookDto>>> createUpdateBooks(
+            @RequestBody List<BookDto> bookDtos,
+            @RequestParam(value = "createAuthor", defaultValue = "false") boolean createAuthor) {
+        if (bookDtos.stream().anyMatch(bookDto -> bookDto.getIsbn() == null || (!createAuthor && !hasAuthorId(bookDto)))) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
+
+        List<BookEntity> bookEntities = bookDtos.stream().map(bookMapper::mapFrom).collect(Collectors.toList());
+        List<UpsertResult<BookEntity>> results = bookService.createUpdateBooks(bookEntities, createAuthor);
+        List<BatchItemResultDto<BookDto>> batchResult = results.stream()
+                .map(result -> new BatchItemResultDto<>(
+                        result.isCreated() ? HttpStatus.CREATED.value() : HttpStatus.OK.value(),
+                        bookMapper.mapTo(result.getEntity())))
+                .collect(Collectors.toList());
+        return new ResponseEntity<>(batchResult, HttpStatus.OK);
+    }
+
+    /**
+     * Bulk import of a CSV or NDJSON catalog, streamed from the request body. See {@link BookImportService}.
+     */
+    @PostMapping(path = "/books:import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BookImportResultDto> importBooks(
+            InputStream body, @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType) {
+        ImportFormat format = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? ImportFormat.NDJSON : ImportFormat.CSV;
+        BookImportResult result = bookImportService.importBooks(body, format);
+        BookImportResultDto resultDto = BookImportResultDto.builder()
+                .rows(result.getRows())
+                .authorsCreated(result.getAuthorsCreated())
+                .booksInserted(result.getBooksInserted())
+                .booksUpdated(result.getBooksUpdated())
+                .elapsedMillis(result.getElapsedMillis())
+                .rowsPerSecond(result.getRowsPerSecond())
+                .build();
+        return new ResponseEntity<>(resultDto, HttpStatus.OK);
     }
 
     @GetMapping(path = "/books")
-    public Page<BookDto> listBooks(Pageable pageable) {
+    @SqlBudget(2)
+    public ResponseEntity<Page<BookDto>> listBooks(Pageable pageable, WebRequest webRequest) {
         Page<BookEntity> books = bookService.findAll(pageable);
-        return books.map(bookMapper::mapTo);
+        String eTag = ETags.weak(
+                books.getContent().stream().map(book -> book.getIsbn() + ETags.of(book)).collect(Collectors.toList()),
+                books.getTotalElements());
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(books.map(bookMapper::mapTo));
+
+    }
+
+    /**
+     * The count-free page: total=none reports only hasNext, total=approximate adds the planner's row estimate.
+     */
+    @GetMapping(path = "/books", params = {"total", "!cursor"})
+    @SqlBudget(1)
+    public ResponseEntity<SliceDto<BookDto>> listBooksAsSlice(
+            Pageable pageable,
+            @RequestParam("total") String total,
+            WebRequest webRequest) {
+        if (!total.equals("none") && !total.equals("approximate")) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        Slice<BookEntity> books = bookService.findSlice(pageable);
+        Long approximateTotal = total.equals("none") ? null : bookService.approximateCount();
+        String eTag = ETags.weak(
+                books.getContent().stream().map(book -> book.getIsbn() + ETags.of(book)).collect(Collectors.toList()),
+                31L * (books.hasNext() ? 1 : 0) + (approximateTotal == null ? -1 : approximateTotal));
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        SliceDto<BookDto> body = new SliceDto<>(
+                books.getContent().stream().map(bookMapper::mapTo).collect(Collectors.toList()),
+                books.getNumber(), books.getSize(), books.hasNext(), approximateTotal);
+        return ResponseEntity.ok().eTag(eTag).body(body);
+    }
+
+    @GetMapping(path = "/books/search")
+    @SqlBudget(1)
+    public ResponseEntity<List<BookDto>> searchBooks(
+            @RequestParam("q") String query,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        if (size < 1) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        List<BookDto> books = bookService.search(query, size).stream()
+                .map(bookMapper::mapTo)
+                .collect(Collectors.toList());
+        return new ResponseEntity<>(books, HttpStatus.OK);
+    }
+
+    @GetMapping(path = "/books", params = "cursor")
+    @SqlBudget(1)
+    public ResponseEntity<CursorPageDto<BookDto>> listBooksByCursor(
+            @RequestParam("cursor") String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "sort", defaultValue = "isbn") String sort) {
+
+        String[] sortParts = sort.split(",", -1);
+        String sortKey = sortParts[0];
+        boolean byTitle = sortKey.equals("title");
+        boolean ascending = sortParts.length == 1 || (sortParts.length == 2 && sortParts[1].equalsIgnoreCase("asc"));
+        if (size < 1 || !ascending || (!byTitle && !sortKey.equals("isbn"))) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        size = Math.min(size, CursorCodec.MAX_PAGE_SIZE);
+
+        String[] after = null;
+        if (!cursor.isEmpty()) {
+            try {
+                after = CursorCodec.decode(cursor, sortKey, byTitle ? 3 : 2);
+            } catch (IllegalArgumentException e) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+        }
+
+        List<BookEntity> books;
+        if (byTitle) {
+            books = bookService.findAllAfterTitle(after == null ? null : after[1], after == null ? null : after[2], size + 1);
+        } else {
+            books = bookService.findAllAfterIsbn(after == null ? null : after[1], size + 1);
+        }
 
+        String nextCursor = null;
+        if (books.size() > size) {
+            books = books.subList(0, size);
+            BookEntity last = books.get(size - 1);
+            nextCursor = byTitle
+                    ? CursorCodec.encode(sortKey, last.getTitle(), last.getIsbn())
+                    : CursorCodec.encode(sortKey, last.getIsbn());
+        }
+        List<BookDto> content = books.stream().map(bookMapper::mapTo).collect(Collectors.toList());
+        return new ResponseEntity<>(new CursorPageDto<>(content, nextCursor), HttpStatus.OK);
+    }
+
+    @GetMapping(path = "/books/export")
+    public ResponseEntity<StreamingResponseBody> exportBooks() {
+        StreamingResponseBody body = outputStream -> bookService.exportAll(
+                bookEntity -> NdjsonWriter.writeLine(objectMapper, outputStream, bookMapper.mapTo(bookEntity)));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @GetMapping(path =  "/books/{isbn}")
-    public ResponseEntity<BookDto> getBook(@PathVariable("isbn") String isbn) {
+    @SqlBudget(1)
+    public ResponseEntity<BookDto> getBook(@PathVariable("isbn") String isbn, WebRequest webRequest) {
        Optional<BookEntity> foundBook =bookService.findOne(isbn);
        return foundBook.map(bookEntity -> {
+           String eTag = ETags.of(bookEntity);
+           if (webRequest.checkNotModified(eTag)) {
+               return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).<BookDto>build();
+           }
            BookDto bookDto = bookMapper.mapTo(bookEntity);
-           return new ResponseEntity<>(bookDto, HttpStatus.OK);
+           return ResponseEntity.ok().eTag(eTag).body(bookDto);
        }).orElse( new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     @PatchMapping(path = "/books/{isbn}")
-    public ResponseEntity<BookDto> partialUpdateBook(@PathVariable("isbn") String isbn, @RequestBody BookDto bookDto) {
-
-        if(!bookService.isExists(isbn)){
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        }else{
-            BookEntity bookEntity = bookMapper.mapFrom(bookDto);
-            BookEntity updatedBook = bookService.partialUpdate(isbn, bookEntity);
-            return new ResponseEntity<>(bookMapper.mapTo(updatedBook), HttpStatus.OK);
-        }
+    public ResponseEntity<BookDto> partialUpdateBook(@PathVariable("isbn") String isbn, @RequestBody BookDto bookDto,
+                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+
+        BookEntity bookEntity = bookMapper.mapFrom(bookDto);
+        bookEntity.setVersion(ETags.ifMatchVersion(ifMatch));
+        return bookService.partialUpdate(isbn, bookEntity)
+                .map(updatedBook -> ResponseEntity.ok().eTag(ETags.of(updatedBook)).body(bookMapper.mapTo(updatedBook)))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     @DeleteMapping(path = "/books/{isbn}")
@@ -75,5 +246,7 @@ public class BookController {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
-
+    private static boolean hasAuthorId(BookDto bookDto) {
+        return bookDto.getAuthorDto() == null || bookDto.getAuthorDto().getId() != null;
+    }
 }
@@ -0,0 +1,32 @@
+package com.william.williamRestApi.controllers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Turns the keyset values of the last row on a page into an opaque cursor token and back.
+ * The first value is always the sort key, so a cursor cannot be replayed against a different ordering.
+ */
+final class CursorCodec {
+
+    /** Larger size parameters are capped to this, which also keeps the size + 1 look-ahead from overflowing. */
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private static final String SEPARATOR = "\u001f";
+
+    private CursorCodec() {
+    }
+
+    static String encode(String... values) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.join(SEPARATOR, values).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String[] decode(String cursor, String sortKey, int length) {
+        String[] values = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR, -1);
+        if (values.length != length || !values[0].equals(sortKey)) {
+            throw new IllegalArgumentException("Cursor does not match sort " + sortKey);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,59 @@
+package com.william.williamRestApi.controllers;
+
+import com.william.williamRestApi.domain.entities.AuthorEntity;
+import com.william.williamRestApi.domain.entities.BookEntity;
+import com.william.williamRestApi.services.PreconditionFailedException;
+
+import java.util.List;
+
+/**
+ * ETags derived from the entity version columns. A book's representation embeds its author, so the book tag
+ * also carries the author id and version; the leading number is always the version of the entity itself.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(BookEntity book) {
+        AuthorEntity author = book.getAuthorEntity();
+        if (author == null) {
+            return "\"" + book.getVersion() + "\"";
+        }
+        return "\"" + book.getVersion() + "-" + author.getId() + "-" + author.getVersion() + "\"";
+    }
+
+    static String of(AuthorEntity author) {
+        return "\"" + author.getVersion() + "\"";
+    }
+
+    /**
+     * Weak tag for a list response, built from the id and strong tag of every row plus a seed for the rest of
+     * the body, such as the total row count.
+     */
+    static String weak(List<String> rowTags, long seed) {
+        long hash = seed;
+        for (String rowTag : rowTags) {
+            hash = 31 * hash + rowTag.hashCode();
+        }
+        return "W/\"" + Long.toHexString(hash) + "-" + rowTags.size() + "\"";
+    }
+
+    /**
+     * Returns the version an If-Match header asks for, or null when there is no precondition.
+     */
+    static Long ifMatchVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (!tag.startsWith("\"") || !tag.endsWith("\"") || tag.length() < 3) {
+            throw new PreconditionFailedException("If-Match requires a single strong ETag");
+        }
+        try {
+            return Long.valueOf(tag.substring(1, tag.length() - 1).split("-")[0]);
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match " + ifMatch + " does not match any version");
+        }
+    }
+}
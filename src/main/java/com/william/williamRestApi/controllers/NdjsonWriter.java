@@ -0,0 +1,25 @@
+package com.william.williamRestApi.controllers;
+
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+final class NdjsonWriter {
+
+    private static final int NEWLINE = '\n';
+
+    private NdjsonWriter() {
+    }
+
+    static void writeLine(ObjectMapper objectMapper, OutputStream outputStream, Object value) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(value));
+            outputStream.write(NEWLINE);
+        } catch (IOException e) {
+            // Usually the client went away; failing here closes the repository stream and its cursor.
+            throw new UncheckedIOException(e);
+        }
+    }
+}
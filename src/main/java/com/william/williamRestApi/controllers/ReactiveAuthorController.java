@@ -0,0 +1,48 @@
+package com.william.williamRestApi.controllers;
+
+import com.william.williamRestApi.domain.dto.AuthorDto;
+import com.william.williamRestApi.domain.entities.AuthorEntity;
+import com.william.williamRestApi.mappers.Mapper;
+import com.william.williamRestApi.services.ReactiveAuthorService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-only /v2 author API served from R2DBC. Requesting application/x-ndjson streams the rows as they arrive,
+ * with backpressure from the response.
+ */
+@RestController
+public class ReactiveAuthorController {
+
+    private Mapper<AuthorEntity, AuthorDto> authorMapper;
+    private ReactiveAuthorService reactiveAuthorService;
+
+    public ReactiveAuthorController(Mapper<AuthorEntity, AuthorDto> authorMapper, ReactiveAuthorService reactiveAuthorService) {
+        this.authorMapper = authorMapper;
+        this.reactiveAuthorService = reactiveAuthorService;
+    }
+
+    @GetMapping(path = "/v2/authors", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<Flux<AuthorDto>> listAuthors(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        if (size < 1 || size > CursorCodec.MAX_PAGE_SIZE) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(reactiveAuthorService.findAllAfterId(after, size).map(authorMapper::mapTo));
+    }
+
+    @GetMapping(path = "/v2/authors/{id}")
+    public Mono<ResponseEntity<AuthorDto>> getAuthor(@PathVariable("id") Long id) {
+        return reactiveAuthorService.findOne(id)
+                .map(author -> ResponseEntity.ok().eTag(ETags.of(author)).body(authorMapper.mapTo(author)))
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+}
@@ -0,0 +1,48 @@
+package com.william.williamRestApi.controllers;
+
+import com.william.williamRestApi.domain.dto.BookDto;
+import com.william.williamRestApi.domain.entities.BookEntity;
+import com.william.williamRestApi.mappers.Mapper;
+import com.william.williamRestApi.services.ReactiveBookService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-only /v2 book API served from R2DBC. Requesting application/x-ndjson streams the rows as they arrive,
+ * with backpressure from the response.
+ */
+@RestController
+public class ReactiveBookController {
+
+    private Mapper<BookEntity, BookDto> bookMapper;
+    private ReactiveBookService reactiveBookService;
+
+    public ReactiveBookController(Mapper<BookEntity, BookDto> bookMapper, ReactiveBookService reactiveBookService) {
+        this.bookMapper = bookMapper;
+        this.reactiveBookService = reactiveBookService;
+    }
+
+    @GetMapping(path = "/v2/books", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<Flux<BookDto>> listBooks(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        if (size < 1 || size > CursorCodec.MAX_PAGE_SIZE) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(reactiveBookService.findAllAfterIsbn(after, size).map(bookMapper::mapTo));
+    }
+
+    @GetMapping(path = "/v2/books/{isbn}")
+    public Mono<ResponseEntity<BookDto>> getBook(@PathVariable("isbn") String isbn) {
+        return reactiveBookService.findOne(isbn)
+                .map(book -> ResponseEntity.ok().eTag(ETags.of(book)).body(bookMapper.mapTo(book)))
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+}
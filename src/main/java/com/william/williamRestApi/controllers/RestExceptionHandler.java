@@ -0,0 +1,77 @@
+package com.william.williamRestApi.controllers;
+
+import com.william.williamRestApi.config.SqlBudgetExceededException;
+import com.william.williamRestApi.services.ImportFormatException;
+import com.william.williamRestApi.services.PreconditionFailedException;
+import com.william.williamRestApi.services.WritePipelineClosedException;
+import com.william.williamRestApi.services.WriteQueueFullException;
+import com.william.williamRestApi.services.WriteTimeoutException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class RestExceptionHandler {
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<Void> handlePreconditionFailed(PreconditionFailedException e) {
+        return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    /**
+     * A concurrent write won without the client having asked for a version, so there is no precondition to fail.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Void> handleOptimisticLockingFailure(OptimisticLockingFailureException e) {
+        return new ResponseEntity<>(HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Void> handleDataIntegrityViolation(DataIntegrityViolationException e) {
+        return new ResponseEntity<>(HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(WriteQueueFullException.class)
+    public ResponseEntity<Void> handleWriteQueueFull(WriteQueueFullException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+
+    @ExceptionHandler(WritePipelineClosedException.class)
+    public ResponseEntity<Void> handleWritePipelineClosed(WritePipelineClosedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+    }
+
+    @ExceptionHandler(WriteTimeoutException.class)
+    public ResponseEntity<Void> handleWriteTimeout(WriteTimeoutException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+
+    /**
+     * No database connection could be had in time, whether the pool or the virtual-thread connection limit ran out.
+     */
+    @ExceptionHandler({CannotCreateTransactionException.class, CannotGetJdbcConnectionException.class})
+    public ResponseEntity<Void> handleNoConnection(Exception e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+
+    @ExceptionHandler(ImportFormatException.class)
+    public ResponseEntity<String> handleImportFormat(ImportFormatException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Reject mode stops a request at the first statement over its @SqlBudget. That is a defect in the endpoint,
+     * not in the request, so it stays a 500, but with a body that says which budget was hit.
+     */
+    @ExceptionHandler(SqlBudgetExceededException.class)
+    public ResponseEntity<String> handleSqlBudgetExceeded(SqlBudgetExceededException e) {
+        return new ResponseEntity<>("SQL budget of " + e.getBudget() + " statements exceeded",
+                HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+}
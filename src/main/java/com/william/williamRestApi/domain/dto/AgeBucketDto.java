@@ -0,0 +1,21 @@
+package com.william.williamRestApi.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AgeBucketDto {
+
+    private Integer minAge;
+
+    private Integer maxAge;
+
+    private Long count;
+
+    private Double averageAge;
+}
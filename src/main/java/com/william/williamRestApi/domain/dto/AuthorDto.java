@@ -1,10 +1,13 @@
 package com.william.williamRestApi.domain.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -16,4 +19,7 @@ public class AuthorDto {
     private String name;
 
     private Integer age;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<BookDto> books;
 }
@@ -0,0 +1,17 @@
+package com.william.williamRestApi.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BatchItemResultDto<T> {
+
+    private int status;
+
+    private T item;
+}
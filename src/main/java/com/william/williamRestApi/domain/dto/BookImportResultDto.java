@@ -0,0 +1,25 @@
+package com.william.williamRestApi.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BookImportResultDto {
+
+    private long rows;
+
+    private long authorsCreated;
+
+    private long booksInserted;
+
+    private long booksUpdated;
+
+    private long elapsedMillis;
+
+    private long rowsPerSecond;
+}
@@ -5,13 +5,21 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name ="books")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "books")
+@Table(name ="books", indexes = {
+        @Index(name = "idx_books_title_isbn", columnList = "title, isbn"),
+        @Index(name = "idx_books_author_id", columnList = "author_id")
+})
 public class BookEntity {
 
     @Id
@@ -19,8 +27,12 @@ public class BookEntity {
 
     private String title;
 
-    @ManyToOne(cascade = CascadeType.ALL)
+    @ManyToOne
     @JoinColumn(name ="author_id")
     private AuthorEntity authorEntity;
 
+    @Version
+    @ColumnDefault("0")
+    private Long version;
+
 }
\ No newline at end of file
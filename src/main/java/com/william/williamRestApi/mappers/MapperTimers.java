@@ -0,0 +1,31 @@
+package com.william.williamRestApi.mappers;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * The mapper.map timer, tagged with the mapper and the direction (to: entity to dto, from: dto to entity). A book
+ * includes its embedded author. The timer runs once per row, so it publishes histogram buckets only (see
+ * application.properties) and leaves the quantiles to the metrics backend.
+ */
+public final class MapperTimers {
+
+    private MapperTimers() {
+    }
+
+    public static Timer mapTo(MeterRegistry meterRegistry, String mapper) {
+        return timer(meterRegistry, mapper, "to");
+    }
+
+    public static Timer mapFrom(MeterRegistry meterRegistry, String mapper) {
+        return timer(meterRegistry, mapper, "from");
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String mapper, String direction) {
+        return Timer.builder("mapper.map")
+                .tag("mapper", mapper)
+                .tag("direction", direction)
+                .description("Time spent mapping between entities and dtos")
+                .register(meterRegistry);
+    }
+}
@@ -3,27 +3,43 @@ package com.william.williamRestApi.mappers.impl;
 import com.william.williamRestApi.domain.dto.BookDto;
 import com.william.williamRestApi.domain.entities.BookEntity;
 import com.william.williamRestApi.mappers.Mapper;
-import org.modelmapper.ModelMapper;
+import com.william.williamRestApi.mappers.MapperTimers;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Component;
 
-import java.awt.print.Book;
 @Component
 public class BookMapper implements Mapper<BookEntity, BookDto> {
 
-    private ModelMapper modelMapper;
+    private Timer mapToTimer;
+    private Timer mapFromTimer;
 
-    public BookMapper(ModelMapper modelMapper) {
-        this.modelMapper = modelMapper;
+    public BookMapper(MeterRegistry meterRegistry) {
+        this.mapToTimer = MapperTimers.mapTo(meterRegistry, "book");
+        this.mapFromTimer = MapperTimers.mapFrom(meterRegistry, "book");
     }
 
 
     @Override
     public BookDto mapTo(BookEntity bookEntity) {
-        return modelMapper.map(bookEntity, BookDto.class);
+        if (bookEntity == null) {
+            return null;
+        }
+        return mapToTimer.record(() -> new BookDto(
+                bookEntity.getIsbn(),
+                bookEntity.getTitle(),
+                AuthorMapper.toDto(bookEntity.getAuthorEntity())));
     }
 
     @Override
     public BookEntity mapFrom(BookDto bookDto) {
-        return modelMapper.map(bookDto, BookEntity.class);
+        if (bookDto == null) {
+            return null;
+        }
+        return mapFromTimer.record(() -> new BookEntity(
+                bookDto.getIsbn(),
+                bookDto.getTitle(),
+                AuthorMapper.toEntity(bookDto.getAuthorDto()),
+                null));
     }
 }
@@ -0,0 +1,10 @@
+package com.william.williamRestApi.reposotories;
+
+public interface AgeBucket {
+
+    Integer getBucketStart();
+
+    Long getAuthorCount();
+
+    Double getAverageAge();
+}
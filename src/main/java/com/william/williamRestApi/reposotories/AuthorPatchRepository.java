@@ -0,0 +1,15 @@
+package com.william.williamRestApi.reposotories;
+
+import com.william.williamRestApi.domain.entities.AuthorEntity;
+
+import java.util.Optional;
+
+public interface AuthorPatchRepository {
+
+    /**
+     * Applies the non-null fields in one UPDATE ... RETURNING that only writes when a value actually changes,
+     * and only while the row is at expectedVersion if one is given. Returns the row as it is afterwards,
+     * or empty if there is no author with this id.
+     */
+    Optional<PatchResult<AuthorEntity>> patch(Long id, String name, Integer age, Long expectedVersion);
+}
@@ -0,0 +1,81 @@
+package com.william.williamRestApi.reposotories;
+
+import com.william.williamRestApi.domain.entities.AuthorEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+public class AuthorPatchRepositoryImpl implements AuthorPatchRepository {
+
+    // The second branch reads the pre-update snapshot, so it only yields a row when the UPDATE wrote nothing.
+    private static final String PATCH_SQL = """
+            WITH updated AS (
+                UPDATE authors
+                SET %s, version = version + 1
+                WHERE id = ? AND (%s)%s
+                RETURNING id, name, age, version
+            )
+            SELECT id, name, age, version, true AS changed FROM updated
+            UNION ALL
+            SELECT id, name, age, version, false FROM authors
+            WHERE id = ? AND NOT EXISTS (SELECT 1 FROM updated)
+            """;
+
+    private JdbcTemplate jdbcTemplate;
+
+    public AuthorPatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<PatchResult<AuthorEntity>> patch(Long id, String name, Integer age, Long expectedVersion) {
+        List<String> assignments = new ArrayList<>();
+        List<String> changes = new ArrayList<>();
+        List<Object> setArgs = new ArrayList<>();
+        List<Integer> setTypes = new ArrayList<>();
+        if (name != null) {
+            assignments.add("name = ?");
+            changes.add("name IS DISTINCT FROM ?");
+            setArgs.add(name);
+            setTypes.add(Types.VARCHAR);
+        }
+        if (age != null) {
+            assignments.add("age = ?");
+            changes.add("age IS DISTINCT FROM ?");
+            setArgs.add(age);
+            setTypes.add(Types.INTEGER);
+        }
+        if (assignments.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to patch for author " + id);
+        }
+
+        List<Object> args = new ArrayList<>(setArgs);
+        List<Integer> types = new ArrayList<>(setTypes);
+        args.add(id);
+        types.add(Types.BIGINT);
+        args.addAll(setArgs);
+        types.addAll(setTypes);
+        String versionCondition = "";
+        if (expectedVersion != null) {
+            versionCondition = " AND version = ?";
+            args.add(expectedVersion);
+            types.add(Types.BIGINT);
+        }
+        args.add(id);
+        types.add(Types.BIGINT);
+
+        String sql = PATCH_SQL.formatted(String.join(", ", assignments), String.join(" OR ", changes), versionCondition);
+        List<PatchResult<AuthorEntity>> rows = jdbcTemplate.query(
+                sql,
+                args.toArray(),
+                types.stream().mapToInt(Integer::intValue).toArray(),
+                (rs, rowNum) -> new PatchResult<>(
+                        new AuthorEntity(rs.getLong("id"), rs.getString("name"), (Integer) rs.getObject("age"),
+                                rs.getLong("version")),
+                        rs.getBoolean("changed")));
+        return rows.stream().findFirst();
+    }
+}
@@ -1,15 +1,65 @@
 package com.william.williamRestApi.reposotories;
 
 import com.william.williamRestApi.domain.entities.AuthorEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
-public interface AuthorRepository extends CrudRepository<AuthorEntity, Long> {
-    Iterable<AuthorEntity> ageLessThan(int age);
+public interface AuthorRepository extends CrudRepository<AuthorEntity, Long>, AuthorPatchRepository {
+
+    /**
+     * Query cache region of the page and age range queries. Writes that bypass Hibernate have to evict it
+     * themselves.
+     */
+    String QUERY_CACHE_REGION = "author-queries";
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    List<AuthorEntity> findByAgeBetweenOrderByAgeAscIdAsc(int minAge, int maxAge, Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    @Query("SELECT a FROM AuthorEntity a WHERE a.age <= ?1 AND (a.age > ?2 OR (a.age = ?2 AND a.id > ?3)) ORDER BY a.age, a.id")
+    List<AuthorEntity> findAgeRangeAfter(int maxAge, int age, Long id, Limit limit);
+
+    @Query(nativeQuery = true, value = """
+            SELECT (age / ?1) * ?1 AS "bucketStart", COUNT(*) AS "authorCount", AVG(age)::float8 AS "averageAge"
+            FROM authors
+            WHERE age BETWEEN ?2 AND ?3
+            GROUP BY 1
+            ORDER BY 1
+            """)
+    List<AgeBucket> findAgeHistogram(int bucketSize, int minAge, int maxAge);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    List<AuthorEntity> findAllByOrderByIdAsc(Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    List<AuthorEntity> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 
-    @Query("SELECT a from AuthorEntity a where a.age > ?1")
-    Iterable<AuthorEntity> findAuthorWithAgeGreaterThan(int age);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM AuthorEntity a")
+    Stream<AuthorEntity> streamAll();
 }
 
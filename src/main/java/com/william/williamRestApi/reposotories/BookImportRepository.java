@@ -0,0 +1,37 @@
+package com.william.williamRestApi.reposotories;
+
+import com.william.williamRestApi.domain.entities.BookEntity;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Bulk import through temporary staging tables. All methods except {@link #forEachBookWrittenBy} must run in
+ * one transaction on the primary: the staging tables belong to the connection and are dropped on commit.
+ */
+public interface BookImportRepository {
+
+    void createImportStaging();
+
+    /**
+     * Streams the books into the staging table with COPY, in input order. The author is taken from its id
+     * if set, otherwise from its name and age. progress is called with the running row count as rows are sent.
+     * Returns the number of rows copied.
+     */
+    long copyToImportStaging(Iterator<BookEntity> books, LongConsumer progress);
+
+    /**
+     * Creates the staged authors that do not exist yet, matching on name and age, then upserts the staged
+     * books. When the input has an isbn more than once the last row wins. Without titles or authors an existing
+     * book keeps its own, and a new one gets none. Books whose title and author are unchanged are left alone.
+     */
+    ImportMergeResult mergeImportStaging(boolean titles, boolean authors);
+
+    long currentTransactionId();
+
+    /**
+     * Streams the books whose current row version was written by the given transaction, with the author's name.
+     */
+    void forEachBookWrittenBy(long transactionId, Consumer<BookEntity> action);
+}
@@ -0,0 +1,207 @@
+package com.william.williamRestApi.reposotories;
+
+import com.william.williamRestApi.domain.entities.AuthorEntity;
+import com.william.williamRestApi.domain.entities.BookEntity;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+public class BookImportRepositoryImpl implements BookImportRepository {
+
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    // line keeps the input order, so the last row for an isbn can win.
+    private static final String CREATE_STAGING_SQL = """
+            CREATE TEMP TABLE book_import (
+                line bigint GENERATED ALWAYS AS IDENTITY,
+                isbn text NOT NULL,
+                title text,
+                author_id bigint,
+                author_name text,
+                author_age integer
+            ) ON COMMIT DROP
+            """;
+
+    private static final String COPY_SQL = """
+            COPY book_import (isbn, title, author_id, author_name, author_age) FROM STDIN WITH (FORMAT csv)
+            """;
+
+    // The last row per isbn, so authors only named by rows that were overridden are not created.
+    private static final String CREATE_LATEST_SQL = """
+            CREATE TEMP TABLE import_latest ON COMMIT DROP AS
+            SELECT DISTINCT ON (isbn) isbn, title, author_id, author_name, author_age
+            FROM book_import
+            ORDER BY isbn, line DESC
+            """;
+
+    // Authors given by name and age instead of id, one row per distinct pair.
+    private static final String CREATE_IMPORT_AUTHORS_SQL = """
+            CREATE TEMP TABLE import_authors ON COMMIT DROP AS
+            SELECT DISTINCT author_name AS name, author_age AS age
+            FROM import_latest
+            WHERE author_id IS NULL AND author_name IS NOT NULL
+            """;
+
+    // A raw nextval is the top of a block Hibernate's pooled optimizer will never hand out, so ids cannot clash.
+    private static final String INSERT_AUTHORS_SQL = """
+            INSERT INTO authors (id, name, age, version)
+            SELECT nextval('author_id_seq'), k.name, k.age, 0
+            FROM import_authors k
+            WHERE NOT EXISTS (
+                SELECT 1 FROM authors a WHERE a.name = k.name AND a.age IS NOT DISTINCT FROM k.age
+            )
+            """;
+
+    // authors has no unique key on name and age, so an existing duplicate resolves to its lowest id.
+    // :titles and :authors say whether the input supplied those columns; if not, the stored values are kept.
+    private static final String MERGE_BOOKS_SQL = """
+            WITH author_ids AS (
+                SELECT DISTINCT ON (a.name, a.age) a.name, a.age, a.id
+                FROM import_authors k
+                JOIN authors a ON a.name = k.name AND a.age IS NOT DISTINCT FROM k.age
+                ORDER BY a.name, a.age, a.id
+            ), merged AS (
+                INSERT INTO books (isbn, title, author_id, version)
+                SELECT l.isbn, l.title, COALESCE(l.author_id, m.id), 0
+                FROM import_latest l
+                LEFT JOIN author_ids m ON m.name = l.author_name AND m.age IS NOT DISTINCT FROM l.author_age
+                ON CONFLICT (isbn) DO UPDATE
+                    SET title = CASE WHEN :titles THEN EXCLUDED.title ELSE books.title END,
+                        author_id = CASE WHEN :authors THEN EXCLUDED.author_id ELSE books.author_id END,
+                        version = books.version + 1
+                    WHERE (books.title, books.author_id) IS DISTINCT FROM (
+                        CASE WHEN :titles THEN EXCLUDED.title ELSE books.title END,
+                        CASE WHEN :authors THEN EXCLUDED.author_id ELSE books.author_id END)
+                RETURNING (xmax = 0) AS inserted
+            )
+            SELECT COUNT(*) FILTER (WHERE inserted) AS inserted, COUNT(*) FILTER (WHERE NOT inserted) AS updated
+            FROM merged
+            """;
+
+    // xmin is the 32-bit transaction id; txid_current() carries the epoch in its upper bits.
+    private static final String CURRENT_TRANSACTION_SQL = "SELECT txid_current() % 4294967296";
+
+    private static final String WRITTEN_BY_SQL = """
+            SELECT b.isbn, b.title, b.version, a.id AS author_id, a.name AS author_name
+            FROM books b LEFT JOIN authors a ON a.id = b.author_id
+            WHERE b.xmin::text::bigint = ?
+            """;
+
+    private JdbcTemplate jdbcTemplate;
+
+    public BookImportRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void createImportStaging() {
+        jdbcTemplate.execute(CREATE_STAGING_SQL);
+    }
+
+    @Override
+    public long copyToImportStaging(Iterator<BookEntity> books, LongConsumer progress) {
+        Long copied = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+            try {
+                StringBuilder buffer = new StringBuilder(COPY_BUFFER_BYTES);
+                long rows = 0;
+                while (books.hasNext()) {
+                    appendCsvRow(buffer, books.next());
+                    rows++;
+                    if (buffer.length() >= COPY_BUFFER_BYTES) {
+                        writeToCopy(copyIn, buffer);
+                        progress.accept(rows);
+                    }
+                }
+                writeToCopy(copyIn, buffer);
+                copyIn.endCopy();
+                progress.accept(rows);
+                return rows;
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        });
+        jdbcTemplate.execute("ANALYZE book_import");
+        return copied;
+    }
+
+    @Override
+    public ImportMergeResult mergeImportStaging(boolean titles, boolean authors) {
+        jdbcTemplate.execute(CREATE_LATEST_SQL);
+        jdbcTemplate.execute(CREATE_IMPORT_AUTHORS_SQL);
+        long authorsCreated = jdbcTemplate.update(INSERT_AUTHORS_SQL);
+        return new NamedParameterJdbcTemplate(jdbcTemplate).queryForObject(MERGE_BOOKS_SQL,
+                Map.of("titles", titles, "authors", authors), (rs, rowNum) ->
+                new ImportMergeResult(authorsCreated, rs.getLong("inserted"), rs.getLong("updated")));
+    }
+
+    @Override
+    public long currentTransactionId() {
+        return jdbcTemplate.queryForObject(CURRENT_TRANSACTION_SQL, Long.class);
+    }
+
+    @Override
+    public void forEachBookWrittenBy(long transactionId, Consumer<BookEntity> action) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(WRITTEN_BY_SQL);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            statement.setLong(1, transactionId);
+            return statement;
+        }, rs -> {
+            long authorId = rs.getLong("author_id");
+            AuthorEntity author = rs.wasNull() ? null : AuthorEntity.builder()
+                    .id(authorId)
+                    .name(rs.getString("author_name"))
+                    .build();
+            action.accept(new BookEntity(rs.getString("isbn"), rs.getString("title"), author, rs.getLong("version")));
+        });
+    }
+
+    private static void writeToCopy(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    private static void appendCsvRow(StringBuilder buffer, BookEntity book) {
+        AuthorEntity author = book.getAuthorEntity();
+        appendCsvField(buffer, book.getIsbn()).append(',');
+        appendCsvField(buffer, book.getTitle()).append(',');
+        appendCsvField(buffer, author == null ? null : author.getId()).append(',');
+        appendCsvField(buffer, author == null || author.getId() != null ? null : author.getName()).append(',');
+        appendCsvField(buffer, author == null || author.getId() != null ? null : author.getAge()).append('\n');
+    }
+
+    // In COPY's csv format an unquoted empty field is NULL and a quoted one is an empty string.
+    private static StringBuilder appendCsvField(StringBuilder buffer, Object value) {
+        if (value == null) {
+            return buffer;
+        }
+        if (value instanceof Number) {
+            return buffer.append(value);
+        }
+        buffer.append('"');
+        String text = value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                buffer.append('"');
+            }
+            buffer.append(c);
+        }
+        return buffer.append('"');
+    }
+}
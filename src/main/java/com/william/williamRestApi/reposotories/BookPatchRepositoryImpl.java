@@ -0,0 +1,68 @@
+package com.william.williamRestApi.reposotories;
+
+import com.william.williamRestApi.domain.entities.AuthorEntity;
+import com.william.williamRestApi.domain.entities.BookEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+public class BookPatchRepositoryImpl implements BookPatchRepository {
+
+    // The second branch reads the pre-update snapshot, so it only yields a row when the UPDATE wrote nothing.
+    private static final String PATCH_SQL = """
+            WITH updated AS (
+                UPDATE books
+                SET title = ?, version = version + 1
+                WHERE isbn = ? AND title IS DISTINCT FROM ?%s
+                RETURNING isbn, title, author_id, version
+            ), patched AS (
+                SELECT isbn, title, author_id, version, true AS changed FROM updated
+                UNION ALL
+                SELECT isbn, title, author_id, version, false FROM books
+                WHERE isbn = ? AND NOT EXISTS (SELECT 1 FROM updated)
+            )
+            SELECT p.isbn, p.title, p.version, p.changed,
+                   a.id AS author_id, a.name AS author_name, a.age AS author_age, a.version AS author_version
+            FROM patched p LEFT JOIN authors a ON a.id = p.author_id
+            """;
+
+    private JdbcTemplate jdbcTemplate;
+
+    public BookPatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<PatchResult<BookEntity>> patch(String isbn, String title, Long expectedVersion) {
+        List<Object> args = new ArrayList<>(List.of(title, isbn, title));
+        List<Integer> types = new ArrayList<>(List.of(Types.VARCHAR, Types.VARCHAR, Types.VARCHAR));
+        String versionCondition = "";
+        if (expectedVersion != null) {
+            versionCondition = " AND version = ?";
+            args.add(expectedVersion);
+            types.add(Types.BIGINT);
+        }
+        args.add(isbn);
+        types.add(Types.VARCHAR);
+
+        List<PatchResult<BookEntity>> rows = jdbcTemplate.query(
+                PATCH_SQL.formatted(versionCondition),
+                args.toArray(),
+                types.stream().mapToInt(Integer::intValue).toArray(),
+                (rs, rowNum) -> {
+                    AuthorEntity author = null;
+                    long authorId = rs.getLong("author_id");
+                    if (!rs.wasNull()) {
+                        author = new AuthorEntity(authorId, rs.getString("author_name"),
+                                (Integer) rs.getObject("author_age"), rs.getLong("author_version"));
+                    }
+                    BookEntity book = new BookEntity(rs.getString("isbn"), rs.getString("title"), author,
+                            rs.getLong("version"));
+                    return new PatchResult<>(book, rs.getBoolean("changed"));
+                });
+        return rows.stream().findFirst();
+    }
+}
@@ -1,11 +1,100 @@
 package com.william.williamRestApi.reposotories;
 
 import com.william.williamRestApi.domain.entities.BookEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface BookRepository extends CrudRepository<BookEntity, String>,
-        PagingAndSortingRepository<BookEntity, String> {
-}
\ No newline at end of file
+        PagingAndSortingRepository<BookEntity, String>, BookUpsertRepository, BookPatchRepository,
+        BookStatisticsRepository, BookImportRepository {
+
+    /**
+     * Query cache region of the page queries. Writes that bypass Hibernate have to evict it themselves.
+     */
+    String QUERY_CACHE_REGION = "book-queries";
+
+    @Override
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    @EntityGraph(attributePaths = "authorEntity")
+    Page<BookEntity> findAll(Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    @EntityGraph(attributePaths = "authorEntity")
+    Slice<BookEntity> findAllBy(Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = "authorEntity")
+    Iterable<BookEntity> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "authorEntity")
+    Iterable<BookEntity> findAllById(Iterable<String> isbns);
+
+    @Override
+    @EntityGraph(attributePaths = "authorEntity")
+    Optional<BookEntity> findById(String isbn);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    @EntityGraph(attributePaths = "authorEntity")
+    List<BookEntity> findAllByOrderByIsbnAsc(Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    @EntityGraph(attributePaths = "authorEntity")
+    List<BookEntity> findByIsbnGreaterThanOrderByIsbnAsc(String isbn, Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    @EntityGraph(attributePaths = "authorEntity")
+    List<BookEntity> findByTitleIsNotNullOrderByTitleAscIsbnAsc(Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    @EntityGraph(attributePaths = "authorEntity")
+    @Query("SELECT b FROM BookEntity b WHERE b.title > ?1 OR (b.title = ?1 AND b.isbn > ?2) ORDER BY b.title, b.isbn")
+    List<BookEntity> findAfterTitle(String title, String isbn, Limit limit);
+
+    @EntityGraph(attributePaths = "authorEntity")
+    List<BookEntity> findByAuthorEntityIdIn(Collection<Long> authorIds);
+
+    @Query("SELECT b.isbn FROM BookEntity b WHERE b.authorEntity.id IN ?1")
+    List<String> findIsbnsByAuthorIdIn(Collection<Long> authorIds);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM BookEntity b LEFT JOIN FETCH b.authorEntity")
+    Stream<BookEntity> streamAll();
+}
@@ -0,0 +1,9 @@
+package com.william.williamRestApi.reposotories;
+
+public interface BookStatisticsRepository {
+
+    /**
+     * Estimated number of rows in books, from the planner statistics instead of a count(*) scan.
+     */
+    long estimateCount();
+}
@@ -0,0 +1,30 @@
+package com.william.williamRestApi.reposotories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class BookStatisticsRepositoryImpl implements BookStatisticsRepository {
+
+    // The planner's own estimate: rows per page at the last ANALYZE times the pages the table has now. Before
+    // the first ANALYZE reltuples is -1, so the live tuple counter from the statistics collector is used.
+    private static final String ESTIMATE_SQL = """
+            SELECT CASE
+                       WHEN c.reltuples < 0 OR c.relpages = 0 THEN COALESCE(s.n_live_tup, 0)
+                       ELSE (c.reltuples / c.relpages
+                             * (pg_relation_size(c.oid) / current_setting('block_size')::int))::bigint
+                   END
+            FROM pg_class c LEFT JOIN pg_stat_user_tables s ON s.relid = c.oid
+            WHERE c.oid = 'books'::regclass
+            """;
+
+    private JdbcTemplate jdbcTemplate;
+
+    public BookStatisticsRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public long estimateCount() {
+        Long estimate = jdbcTemplate.queryForObject(ESTIMATE_SQL, Long.class);
+        return estimate == null ? 0 : Math.max(estimate, 0);
+    }
+}
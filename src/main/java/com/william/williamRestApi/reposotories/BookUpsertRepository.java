@@ -0,0 +1,30 @@
+package com.william.williamRestApi.reposotories;
+
+import com.william.williamRestApi.domain.entities.BookEntity;
+
+import java.util.List;
+import java.util.Set;
+
+public interface BookUpsertRepository {
+
+    /**
+     * Inserts or updates the book row in a single statement and copies the resulting version and
+     * author row onto the book.
+     * Returns true if the row was inserted.
+     */
+    boolean upsert(BookEntity book);
+
+    /**
+     * Upserts all book rows in a single statement, as {@link #upsert} does for one, and copies each resulting
+     * version and author row onto its book. Each isbn must appear at most once.
+     * Returns the isbns that were inserted.
+     */
+    Set<String> upsertAll(List<BookEntity> books);
+
+    /**
+     * Updates the book row only if it is still at the expected version, copying the new version
+     * and author row onto the book.
+     * Returns false if no row matched.
+     */
+    boolean updateIfVersion(BookEntity book, long expectedVersion);
+}
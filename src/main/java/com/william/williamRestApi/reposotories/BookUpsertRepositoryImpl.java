@@ -0,0 +1,133 @@
+package com.william.williamRestApi.reposotories;
+
+import com.william.williamRestApi.domain.entities.AuthorEntity;
+import com.william.williamRestApi.domain.entities.BookEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class BookUpsertRepositoryImpl implements BookUpsertRepository {
+
+    // xmax is only zero for a row version created by this statement's INSERT, not by the DO UPDATE branch.
+    // The author is joined in the same statement so a book linked by id never needs its author loaded.
+    private static final String UPSERT_SQL = """
+            WITH upserted AS (
+                INSERT INTO books (isbn, title, author_id, version)
+                VALUES (?, ?, ?, 0)
+                ON CONFLICT (isbn) DO UPDATE
+                    SET title = EXCLUDED.title, author_id = EXCLUDED.author_id, version = books.version + 1
+                RETURNING author_id, version, (xmax = 0) AS inserted
+            )
+            SELECT u.version, u.inserted,
+                   a.id AS author_id, a.name AS author_name, a.age AS author_age, a.version AS author_version
+            FROM upserted u LEFT JOIN authors a ON a.id = u.author_id
+            """;
+
+    private static final String UPSERT_ALL_SQL = """
+            WITH upserted AS (
+                INSERT INTO books (isbn, title, author_id, version)
+                SELECT b.isbn, b.title, b.author_id, 0
+                FROM unnest(?::varchar[], ?::varchar[], ?::bigint[]) AS b(isbn, title, author_id)
+                ON CONFLICT (isbn) DO UPDATE
+                    SET title = EXCLUDED.title, author_id = EXCLUDED.author_id, version = books.version + 1
+                RETURNING isbn, author_id, version, (xmax = 0) AS inserted
+            )
+            SELECT u.isbn, u.version, u.inserted,
+                   a.id AS author_id, a.name AS author_name, a.age AS author_age, a.version AS author_version
+            FROM upserted u LEFT JOIN authors a ON a.id = u.author_id
+            """;
+
+    private static final String UPDATE_IF_VERSION_SQL = """
+            WITH updated AS (
+                UPDATE books
+                SET title = ?, author_id = ?, version = version + 1
+                WHERE isbn = ? AND version = ?
+                RETURNING author_id, version
+            )
+            SELECT u.version,
+                   a.id AS author_id, a.name AS author_name, a.age AS author_age, a.version AS author_version
+            FROM updated u LEFT JOIN authors a ON a.id = u.author_id
+            """;
+
+    private JdbcTemplate jdbcTemplate;
+
+    public BookUpsertRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public boolean upsert(BookEntity book) {
+        return jdbcTemplate.queryForObject(
+                UPSERT_SQL,
+                new Object[]{book.getIsbn(), book.getTitle(), authorId(book)},
+                new int[]{Types.VARCHAR, Types.VARCHAR, Types.BIGINT},
+                (rs, rowNum) -> {
+                    book.setVersion(rs.getLong("version"));
+                    book.setAuthorEntity(readAuthor(rs));
+                    return rs.getBoolean("inserted");
+                });
+    }
+
+    @Override
+    public Set<String> upsertAll(List<BookEntity> books) {
+        Map<String, BookEntity> booksByIsbn = new HashMap<>();
+        books.forEach(book -> booksByIsbn.put(book.getIsbn(), book));
+        Set<String> inserted = new HashSet<>();
+        jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(UPSERT_ALL_SQL);
+                    statement.setArray(1, connection.createArrayOf("varchar",
+                            books.stream().map(BookEntity::getIsbn).toArray()));
+                    statement.setArray(2, connection.createArrayOf("varchar",
+                            books.stream().map(BookEntity::getTitle).toArray()));
+                    statement.setArray(3, connection.createArrayOf("bigint",
+                            books.stream().map(BookUpsertRepositoryImpl::authorId).toArray()));
+                    return statement;
+                },
+                (RowCallbackHandler) rs -> {
+                    BookEntity book = booksByIsbn.get(rs.getString("isbn"));
+                    book.setVersion(rs.getLong("version"));
+                    book.setAuthorEntity(readAuthor(rs));
+                    if (rs.getBoolean("inserted")) {
+                        inserted.add(book.getIsbn());
+                    }
+                });
+        return inserted;
+    }
+
+    @Override
+    public boolean updateIfVersion(BookEntity book, long expectedVersion) {
+        List<Boolean> updated = jdbcTemplate.query(
+                UPDATE_IF_VERSION_SQL,
+                new Object[]{book.getTitle(), authorId(book), book.getIsbn(), expectedVersion},
+                new int[]{Types.VARCHAR, Types.BIGINT, Types.VARCHAR, Types.BIGINT},
+                (rs, rowNum) -> {
+                    book.setVersion(rs.getLong("version"));
+                    book.setAuthorEntity(readAuthor(rs));
+                    return true;
+                });
+        return !updated.isEmpty();
+    }
+
+    private static AuthorEntity readAuthor(ResultSet rs) throws SQLException {
+        long authorId = rs.getLong("author_id");
+        if (rs.wasNull()) {
+            return null;
+        }
+        return new AuthorEntity(authorId, rs.getString("author_name"), (Integer) rs.getObject("author_age"),
+                rs.getLong("author_version"));
+    }
+
+    private static Long authorId(BookEntity book) {
+        return book.getAuthorEntity() == null ? null : book.getAuthorEntity().getId();
+    }
+}
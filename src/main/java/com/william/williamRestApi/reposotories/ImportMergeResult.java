@@ -0,0 +1,17 @@
+package com.william.williamRestApi.reposotories;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportMergeResult {
+
+    private long authorsCreated;
+
+    private long booksInserted;
+
+    private long booksUpdated;
+}
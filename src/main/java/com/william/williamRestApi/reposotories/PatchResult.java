@@ -0,0 +1,15 @@
+package com.william.williamRestApi.reposotories;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PatchResult<T> {
+
+    private T entity;
+
+    private boolean changed;
+}
@@ -0,0 +1,49 @@
+package com.william.williamRestApi.reposotories;
+
+import com.william.williamRestApi.domain.entities.AuthorEntity;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking reads of the authors table through R2DBC, for the /v2 API. Writes stay on the JPA repositories.
+ */
+@Repository
+public class ReactiveAuthorRepository {
+
+    private static final String SELECT_AUTHORS = "SELECT id, name, age, version FROM authors ";
+
+    private DatabaseClient databaseClient;
+
+    public ReactiveAuthorRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<AuthorEntity> findById(Long id) {
+        return databaseClient.sql(SELECT_AUTHORS + "WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveAuthorRepository::toAuthor)
+                .one();
+    }
+
+    public Flux<AuthorEntity> findAfterId(Long id, int limit) {
+        if (id == null) {
+            return databaseClient.sql(SELECT_AUTHORS + "ORDER BY id LIMIT :limit")
+                    .bind("limit", limit)
+                    .map(ReactiveAuthorRepository::toAuthor)
+                    .all();
+        }
+        return databaseClient.sql(SELECT_AUTHORS + "WHERE id > :id ORDER BY id LIMIT :limit")
+                .bind("id", id)
+                .bind("limit", limit)
+                .map(ReactiveAuthorRepository::toAuthor)
+                .all();
+    }
+
+    private static AuthorEntity toAuthor(Readable row) {
+        return new AuthorEntity(row.get("id", Long.class), row.get("name", String.class),
+                row.get("age", Integer.class), row.get("version", Long.class));
+    }
+}
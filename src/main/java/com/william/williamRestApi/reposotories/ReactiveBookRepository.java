@@ -0,0 +1,60 @@
+package com.william.williamRestApi.reposotories;
+
+import com.william.williamRestApi.domain.entities.AuthorEntity;
+import com.william.williamRestApi.domain.entities.BookEntity;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking reads of the books table through R2DBC, for the /v2 API. Writes stay on the JPA repositories.
+ */
+@Repository
+public class ReactiveBookRepository {
+
+    private static final String SELECT_BOOKS = """
+            SELECT b.isbn, b.title, b.version,
+                   a.id AS author_id, a.name AS author_name, a.age AS author_age, a.version AS author_version
+            FROM books b LEFT JOIN authors a ON a.id = b.author_id
+            """;
+
+    private DatabaseClient databaseClient;
+
+    public ReactiveBookRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<BookEntity> findById(String isbn) {
+        return databaseClient.sql(SELECT_BOOKS + "WHERE b.isbn = :isbn")
+                .bind("isbn", isbn)
+                .map(ReactiveBookRepository::toBook)
+                .one();
+    }
+
+    public Flux<BookEntity> findAfterIsbn(String isbn, int limit) {
+        if (isbn == null) {
+            return databaseClient.sql(SELECT_BOOKS + "ORDER BY b.isbn LIMIT :limit")
+                    .bind("limit", limit)
+                    .map(ReactiveBookRepository::toBook)
+                    .all();
+        }
+        return databaseClient.sql(SELECT_BOOKS + "WHERE b.isbn > :isbn ORDER BY b.isbn LIMIT :limit")
+                .bind("isbn", isbn)
+                .bind("limit", limit)
+                .map(ReactiveBookRepository::toBook)
+                .all();
+    }
+
+    private static BookEntity toBook(Readable row) {
+        AuthorEntity author = null;
+        Long authorId = row.get("author_id", Long.class);
+        if (authorId != null) {
+            author = new AuthorEntity(authorId, row.get("author_name", String.class),
+                    row.get("author_age", Integer.class), row.get("author_version", Long.class));
+        }
+        return new BookEntity(row.get("isbn", String.class), row.get("title", String.class), author,
+                row.get("version", Long.class));
+    }
+}
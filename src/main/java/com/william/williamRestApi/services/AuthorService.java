@@ -1,22 +1,33 @@
 package com.william.williamRestApi.services;
 
 import com.william.williamRestApi.domain.entities.AuthorEntity;
+import com.william.williamRestApi.reposotories.AgeBucket;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface AuthorService {
 
     AuthorEntity saveAuthor(AuthorEntity authorEntity);
 
+    List<UpsertResult<AuthorEntity>> saveAuthors(List<AuthorEntity> authorEntities);
+
     List<AuthorEntity> findAll();
 
+    List<AuthorEntity> findAllAfterId(Long id, int limit);
+
+    List<AuthorEntity> findAllByAgeBetween(int minAge, int maxAge, Integer afterAge, Long afterId, int limit);
+
+    List<AgeBucket> ageHistogram(int bucketSize, int minAge, int maxAge);
+
+    void exportAll(Consumer<AuthorEntity> consumer);
+
     Optional<AuthorEntity> findOne(Long id);
 
     boolean isExists(Long id);
 
-    AuthorEntity partialUpdate(Long id, AuthorEntity authorEntity);
+    Optional<AuthorEntity> partialUpdate(Long id, AuthorEntity authorEntity);
 
     void deleteById(Long id);
 }
-
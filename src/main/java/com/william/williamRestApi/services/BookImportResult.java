@@ -0,0 +1,25 @@
+package com.william.williamRestApi.services;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookImportResult {
+
+    private long rows;
+
+    private long authorsCreated;
+
+    private long booksInserted;
+
+    private long booksUpdated;
+
+    private long elapsedMillis;
+
+    public long getRowsPerSecond() {
+        return elapsedMillis == 0 ? rows : rows * 1000 / elapsedMillis;
+    }
+}
@@ -0,0 +1,16 @@
+package com.william.williamRestApi.services;
+
+import java.io.InputStream;
+
+public interface BookImportService {
+
+    /**
+     * Imports books with their authors from the stream in one transaction, reading it once from start to end.
+     * Nothing is kept per row in memory: rows go to a staging table with COPY and are merged with set-based SQL.
+     * Authors without an id are matched on name and age and created if missing. When an isbn occurs more than
+     * once the last row wins.
+     *
+     * @throws ImportFormatException when a row cannot be parsed; nothing is imported then
+     */
+    BookImportResult importBooks(InputStream input, ImportFormat format);
+}
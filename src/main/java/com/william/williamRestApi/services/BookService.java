@@ -3,23 +3,50 @@ package com.william.williamRestApi.services;
 import com.william.williamRestApi.domain.entities.BookEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface BookService {
 
     BookEntity createUpdateBook(String isbn, BookEntity book);
 
+    UpsertResult<BookEntity> upsertBook(String isbn, BookEntity book, boolean createAuthor);
+
+    List<UpsertResult<BookEntity>> createUpdateBooks(List<BookEntity> books, boolean createAuthor);
+
     List<BookEntity> findAll();
 
     Page<BookEntity> findAll(Pageable pageable);
 
+    /**
+     * One page without a count query: the slice knows whether a next page exists by reading one extra row.
+     */
+    Slice<BookEntity> findSlice(Pageable pageable);
+
+    /**
+     * Approximate number of books from the table statistics, refreshed at most once per configured interval.
+     */
+    long approximateCount();
+
+    List<BookEntity> findAllAfterIsbn(String isbn, int limit);
+
+    List<BookEntity> findAllAfterTitle(String title, String isbn, int limit);
+
+    List<BookEntity> findAllByAuthorIds(Collection<Long> authorIds);
+
+    List<BookEntity> search(String query, int limit);
+
+    void exportAll(Consumer<BookEntity> consumer);
+
     Optional<BookEntity> findOne(String isbn);
 
     boolean isExists(String isbn);
 
-    BookEntity partialUpdate(String isbn, BookEntity bookEntity);
+    Optional<BookEntity> partialUpdate(String isbn, BookEntity bookEntity);
 
     void delete(String isbn);
 }
@@ -0,0 +1,16 @@
+package com.william.williamRestApi.services;
+
+import com.william.williamRestApi.domain.entities.BookEntity;
+
+public interface BookWritePipeline {
+
+    /**
+     * Same contract as {@link BookService#upsertBook}. With group commit enabled the write is queued and applied
+     * together with other writes in one transaction, and this call blocks until that transaction has finished.
+     *
+     * @throws WriteQueueFullException   when the queue is full; the caller should retry later
+     * @throws WritePipelineClosedException when the pipeline is shutting down
+     * @throws WriteTimeoutException     when the write was not committed within the write timeout
+     */
+    UpsertResult<BookEntity> write(String isbn, BookEntity book, boolean createAuthor);
+}
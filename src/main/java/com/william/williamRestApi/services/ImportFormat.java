@@ -0,0 +1,29 @@
+package com.william.williamRestApi.services;
+
+import java.util.Locale;
+
+public enum ImportFormat {
+
+    /**
+     * Comma-separated with a header row naming the columns isbn, title, author_id, author_name and author_age.
+     * Only isbn is required. Quoted fields may contain commas, quotes (doubled) and line breaks.
+     */
+    CSV,
+
+    /**
+     * One book per line in the same JSON shape as PUT /books/{isbn}, including the isbn.
+     */
+    NDJSON;
+
+    public static ImportFormat forFileName(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Cannot tell the import format of " + fileName
+                + "; expected .csv, .ndjson or .jsonl");
+    }
+}
@@ -0,0 +1,8 @@
+package com.william.williamRestApi.services;
+
+public class ImportFormatException extends RuntimeException {
+
+    public ImportFormatException(long record, String message) {
+        super("Record " + record + ": " + message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.william.williamRestApi.services;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+
+/**
+ * A write that named the version it expected (If-Match, or a version in a batch item) found another one.
+ * Conflicts on writes without such a precondition stay plain {@link OptimisticLockingFailureException}s.
+ */
+public class PreconditionFailedException extends OptimisticLockingFailureException {
+
+    public PreconditionFailedException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,12 @@
+package com.william.williamRestApi.services;
+
+import com.william.williamRestApi.domain.entities.AuthorEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveAuthorService {
+
+    Flux<AuthorEntity> findAllAfterId(Long id, int limit);
+
+    Mono<AuthorEntity> findOne(Long id);
+}
@@ -0,0 +1,12 @@
+package com.william.williamRestApi.services;
+
+import com.william.williamRestApi.domain.entities.BookEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveBookService {
+
+    Flux<BookEntity> findAllAfterIsbn(String isbn, int limit);
+
+    Mono<BookEntity> findOne(String isbn);
+}
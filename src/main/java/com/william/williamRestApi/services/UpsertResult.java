@@ -0,0 +1,15 @@
+package com.william.williamRestApi.services;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UpsertResult<T> {
+
+    private T entity;
+
+    private boolean created;
+}
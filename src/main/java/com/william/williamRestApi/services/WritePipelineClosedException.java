@@ -0,0 +1,8 @@
+package com.william.williamRestApi.services;
+
+public class WritePipelineClosedException extends RuntimeException {
+
+    public WritePipelineClosedException() {
+        super("Book write pipeline is shutting down");
+    }
+}
@@ -0,0 +1,8 @@
+package com.william.williamRestApi.services;
+
+public class WriteQueueFullException extends RuntimeException {
+
+    public WriteQueueFullException(int capacity) {
+        super("Book write queue is full (" + capacity + " pending writes)");
+    }
+}
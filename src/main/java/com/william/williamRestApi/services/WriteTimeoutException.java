@@ -0,0 +1,10 @@
+package com.william.williamRestApi.services;
+
+import java.time.Duration;
+
+public class WriteTimeoutException extends RuntimeException {
+
+    public WriteTimeoutException(Duration timeout) {
+        super("Book write was not committed within " + timeout);
+    }
+}
@@ -0,0 +1,58 @@
+package com.william.williamRestApi.services.impl;
+
+import com.william.williamRestApi.reposotories.BookRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Caches the estimated book count for app.books.approximate-total-ttl. Readers never wait on each other: only
+ * the first caller after expiry queries the statistics; the others keep getting the previous value meanwhile.
+ */
+@Component
+class ApproximateBookCount {
+
+    private record Estimate(long count, long expiresAtNanos) {
+    }
+
+    private BookRepository bookRepository;
+    private long ttlNanos;
+    private volatile Estimate estimate;
+    private volatile boolean refreshing;
+
+    ApproximateBookCount(BookRepository bookRepository,
+                         @Value("${app.books.approximate-total-ttl:30s}") Duration ttl) {
+        this.bookRepository = bookRepository;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    long get() {
+        Estimate current = estimate;
+        if (current == null) {
+            return refresh();
+        }
+        if (current.expiresAtNanos() - System.nanoTime() > 0 || !claimRefresh()) {
+            return current.count();
+        }
+        try {
+            return refresh();
+        } finally {
+            refreshing = false;
+        }
+    }
+
+    private long refresh() {
+        long count = bookRepository.estimateCount();
+        estimate = new Estimate(count, System.nanoTime() + ttlNanos);
+        return count;
+    }
+
+    private synchronized boolean claimRefresh() {
+        if (refreshing) {
+            return false;
+        }
+        refreshing = true;
+        return true;
+    }
+}
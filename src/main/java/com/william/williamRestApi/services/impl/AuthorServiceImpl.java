@@ -1,57 +1,182 @@
 package com.william.williamRestApi.services.impl;
 
+import com.william.williamRestApi.config.CacheConfig;
 import com.william.williamRestApi.domain.entities.AuthorEntity;
+import com.william.williamRestApi.reposotories.AgeBucket;
 import com.william.williamRestApi.reposotories.AuthorRepository;
 import com.william.williamRestApi.services.AuthorService;
+import com.william.williamRestApi.services.PreconditionFailedException;
+import com.william.williamRestApi.services.UpsertResult;
+import jakarta.persistence.EntityManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 @Service
 public class AuthorServiceImpl implements AuthorService {
 
     private AuthorRepository authorRepository;
+    private EntityManager entityManager;
+    private CatalogCacheEvictor cacheEvictor;
+    private BookSearchIndexer searchIndexer;
+    private SingleFlight<Long, Optional<AuthorEntity>> authorLookups;
 
-    public AuthorServiceImpl(AuthorRepository authorRepository) {
+    public AuthorServiceImpl(AuthorRepository authorRepository, EntityManager entityManager,
+                             CatalogCacheEvictor cacheEvictor, BookSearchIndexer searchIndexer,
+                             SingleFlightLookups singleFlightLookups) {
         this.authorRepository = authorRepository;
+        this.entityManager = entityManager;
+        this.cacheEvictor = cacheEvictor;
+        this.searchIndexer = searchIndexer;
+        this.authorLookups = singleFlightLookups.create("author");
     }
     @Override
+    @Transactional
     public AuthorEntity saveAuthor(AuthorEntity authorEntity) {
-        return authorRepository.save(authorEntity);
+        return saveAuthors(List.of(authorEntity)).get(0).getEntity();
     }
 
     @Override
+    @Transactional
+    public List<UpsertResult<AuthorEntity>> saveAuthors(List<AuthorEntity> authorEntities) {
+        List<Long> ids = authorEntities.stream()
+                .map(AuthorEntity::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        Map<Long, AuthorEntity> existingAuthors = new HashMap<>();
+        authorRepository.findAllById(ids).forEach(author -> existingAuthors.put(author.getId(), author));
+
+        List<UpsertResult<AuthorEntity>> results = new ArrayList<>(authorEntities.size());
+        List<Long> renamedAuthorIds = new ArrayList<>();
+        for (AuthorEntity authorEntity : authorEntities) {
+            AuthorEntity existingAuthor = existingAuthors.get(authorEntity.getId());
+            checkVersion(authorEntity.getVersion(), existingAuthor == null ? null : existingAuthor.getVersion(),
+                    authorEntity.getId());
+            if (existingAuthor != null) {
+                if (!Objects.equals(existingAuthor.getName(), authorEntity.getName())) {
+                    renamedAuthorIds.add(existingAuthor.getId());
+                }
+                existingAuthor.setName(authorEntity.getName());
+                existingAuthor.setAge(authorEntity.getAge());
+                results.add(new UpsertResult<>(existingAuthor, false));
+            } else {
+                authorEntity.setId(null);
+                authorEntity.setVersion(null);
+                results.add(new UpsertResult<>(authorRepository.save(authorEntity), true));
+            }
+        }
+        cacheEvictor.evictAuthors(existingAuthors.keySet());
+        searchIndexer.reindexAuthors(renamedAuthorIds);
+        return results;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<AuthorEntity> findAll() {
         return StreamSupport.stream(authorRepository.findAll().spliterator(), false)
                 .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<AuthorEntity> findAllAfterId(Long id, int limit) {
+        if (id == null) {
+            return authorRepository.findAllByOrderByIdAsc(Limit.of(limit));
+        }
+        return authorRepository.findByIdGreaterThanOrderByIdAsc(id, Limit.of(limit));
+    }
+
+    /**
+     * Keyset pages over (age, id), so every page is a bounded range scan of idx_authors_age_id.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<AuthorEntity> findAllByAgeBetween(int minAge, int maxAge, Integer afterAge, Long afterId, int limit) {
+        if (afterAge == null) {
+            return authorRepository.findByAgeBetweenOrderByAgeAscIdAsc(minAge, maxAge, Limit.of(limit));
+        }
+        return authorRepository.findAgeRangeAfter(maxAge, afterAge, afterId, Limit.of(limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AgeBucket> ageHistogram(int bucketSize, int minAge, int maxAge) {
+        return authorRepository.findAgeHistogram(bucketSize, minAge, maxAge);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<AuthorEntity> consumer) {
+        try (Stream<AuthorEntity> authors = authorRepository.streamAll()) {
+            authors.forEach(author -> {
+                consumer.accept(author);
+                entityManager.detach(author);
+            });
+        }
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.AUTHORS_CACHE, key = "#id", unless = "#result == null")
     public Optional<AuthorEntity> findOne(Long id) {
-        return authorRepository.findById(id);
+        // Not transactional, so waiting callers hold no connection; see BookServiceImpl.findOne.
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return authorRepository.findById(id);
+        }
+        return authorLookups.load(id, () -> authorRepository.findById(id));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public boolean isExists(Long id) {
         return authorRepository.existsById(id);
     }
 
     @Override
-    public AuthorEntity partialUpdate(Long id, AuthorEntity authorEntity) {
-        authorEntity.setId(id);
+    public Optional<AuthorEntity> partialUpdate(Long id, AuthorEntity authorEntity) {
+        if (authorEntity.getName() == null && authorEntity.getAge() == null) {
+            return authorRepository.findById(id).map(existingAuthor -> {
+                checkVersion(authorEntity.getVersion(), existingAuthor.getVersion(), id);
+                return existingAuthor;
+            });
+        }
 
-      return  authorRepository.findById(id).map(existingAuthor -> {
-            Optional.ofNullable(authorEntity.getName()).ifPresent(existingAuthor::setName);
-            Optional.ofNullable(authorEntity.getAge()).ifPresent(existingAuthor::setAge);
-           return authorRepository.save(existingAuthor);
-        }).orElseThrow(() -> new RuntimeException("Author does not exist"));
+        return authorRepository.patch(id, authorEntity.getName(), authorEntity.getAge(), authorEntity.getVersion())
+                .map(result -> {
+                    AuthorEntity patchedAuthor = result.getEntity();
+                    if (result.isChanged()) {
+                        cacheEvictor.evictAuthor(id);
+                        if (authorEntity.getName() != null) {
+                            searchIndexer.reindexAuthors(List.of(id));
+                        }
+                    } else {
+                        checkVersion(authorEntity.getVersion(), patchedAuthor.getVersion(), id);
+                    }
+                    return patchedAuthor;
+                });
     }
 
     @Override
     public void deleteById(Long id) {
         authorRepository.deleteById(id);
+        cacheEvictor.evictAuthor(id);
+    }
+
+    private static void checkVersion(Long expectedVersion, Long currentVersion, Long id) {
+        if (expectedVersion != null && !expectedVersion.equals(currentVersion)) {
+            throw new PreconditionFailedException("Author " + id + " is no longer at version " + expectedVersion);
+        }
     }
 }
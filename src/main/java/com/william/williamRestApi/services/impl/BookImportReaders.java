@@ -0,0 +1,259 @@
+package com.william.williamRestApi.services.impl;
+
+import com.william.williamRestApi.domain.dto.AuthorDto;
+import com.william.williamRestApi.domain.dto.BookDto;
+import com.william.williamRestApi.domain.entities.AuthorEntity;
+import com.william.williamRestApi.domain.entities.BookEntity;
+import com.william.williamRestApi.services.ImportFormat;
+import com.william.williamRestApi.services.ImportFormatException;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Turns an import stream into books one record at a time, so the input is never held in memory.
+ */
+final class BookImportReaders {
+
+    private static final int READ_BUFFER_CHARS = 64 * 1024;
+
+    private BookImportReaders() {
+    }
+
+    /**
+     * The books of an import, and which of their columns the input supplies. A column the input does not
+     * supply is left as it is on existing books.
+     */
+    interface Books extends Iterator<BookEntity> {
+
+        boolean hasTitles();
+
+        boolean hasAuthors();
+    }
+
+    static Books open(InputStream input, ImportFormat format, ObjectMapper objectMapper) {
+        return switch (format) {
+            case CSV -> new CsvBooks(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8),
+                    READ_BUFFER_CHARS));
+            case NDJSON -> new NdjsonBooks(objectMapper.readerFor(BookDto.class).readValues(input));
+        };
+    }
+
+    private static BookEntity book(long record, String isbn, String title, AuthorEntity author) {
+        if (isbn == null || isbn.isBlank()) {
+            throw new ImportFormatException(record, "isbn is missing");
+        }
+        return new BookEntity(isbn, title, author, null);
+    }
+
+    /**
+     * Every line is a whole book in the PUT /books/{isbn} shape, so every column is supplied.
+     */
+    private static final class NdjsonBooks implements Books {
+
+        private MappingIterator<BookDto> books;
+        private long record;
+
+        NdjsonBooks(MappingIterator<BookDto> books) {
+            this.books = books;
+        }
+
+        @Override
+        public boolean hasTitles() {
+            return true;
+        }
+
+        @Override
+        public boolean hasAuthors() {
+            return true;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                return books.hasNextValue();
+            } catch (JacksonException e) {
+                throw new ImportFormatException(record + 1, e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public BookEntity next() {
+            record++;
+            BookDto bookDto;
+            try {
+                bookDto = books.nextValue();
+            } catch (JacksonException e) {
+                throw new ImportFormatException(record, e.getOriginalMessage());
+            }
+            AuthorDto authorDto = bookDto.getAuthorDto();
+            AuthorEntity author = authorDto == null ? null
+                    : new AuthorEntity(authorDto.getId(), authorDto.getName(), authorDto.getAge(), null);
+            return book(record, bookDto.getIsbn(), bookDto.getTitle(), author);
+        }
+    }
+
+    /**
+     * RFC 4180 CSV. An empty unquoted field is null, a quoted one ("") is an empty string. The header decides
+     * which columns are supplied: the author is when it has an author_id or author_name column.
+     */
+    private static final class CsvBooks implements Books {
+
+        private BufferedReader reader;
+        private List<String> fields = new ArrayList<>();
+        private StringBuilder field = new StringBuilder();
+        private long record;
+        private int isbnColumn;
+        private int titleColumn;
+        private int authorIdColumn;
+        private int authorNameColumn;
+        private int authorAgeColumn;
+        private BookEntity next;
+
+        CsvBooks(BufferedReader reader) {
+            this.reader = reader;
+            if (!readRecord()) {
+                throw new ImportFormatException(1, "the header row is missing");
+            }
+            List<String> header = fields.stream()
+                    .map(name -> name == null ? "" : name.trim().toLowerCase(Locale.ROOT))
+                    .toList();
+            isbnColumn = header.indexOf("isbn");
+            titleColumn = header.indexOf("title");
+            authorIdColumn = header.indexOf("author_id");
+            authorNameColumn = header.indexOf("author_name");
+            authorAgeColumn = header.indexOf("author_age");
+            if (isbnColumn < 0) {
+                throw new ImportFormatException(1, "the header has no isbn column");
+            }
+        }
+
+        @Override
+        public boolean hasTitles() {
+            return titleColumn >= 0;
+        }
+
+        @Override
+        public boolean hasAuthors() {
+            return authorIdColumn >= 0 || authorNameColumn >= 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && readRecord()) {
+                if (fields.size() == 1 && fields.get(0) == null) {
+                    continue;
+                }
+                next = toBook();
+            }
+            return next != null;
+        }
+
+        @Override
+        public BookEntity next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            BookEntity book = next;
+            next = null;
+            return book;
+        }
+
+        private BookEntity toBook() {
+            Long authorId = parse(authorIdColumn, Long::valueOf);
+            String authorName = column(authorNameColumn);
+            Integer authorAge = parse(authorAgeColumn, Integer::valueOf);
+            AuthorEntity author = authorId == null && authorName == null ? null
+                    : new AuthorEntity(authorId, authorName, authorAge, null);
+            return book(record, column(isbnColumn), column(titleColumn), author);
+        }
+
+        private String column(int index) {
+            return index < 0 || index >= fields.size() ? null : fields.get(index);
+        }
+
+        private <T> T parse(int index, Function<String, T> parser) {
+            String value = column(index);
+            if (value == null || value.isBlank()) {
+                return null;
+            }
+            try {
+                return parser.apply(value.trim());
+            } catch (NumberFormatException e) {
+                throw new ImportFormatException(record, "'" + value + "' is not a number");
+            }
+        }
+
+        private boolean readRecord() {
+            fields.clear();
+            field.setLength(0);
+            boolean quoted = false;
+            boolean inQuotes = false;
+            boolean empty = true;
+            try {
+                int c;
+                while ((c = reader.read()) != -1) {
+                    empty = false;
+                    if (inQuotes) {
+                        if (c != '"') {
+                            field.append((char) c);
+                        } else if (peek() == '"') {
+                            reader.read();
+                            field.append('"');
+                        } else {
+                            inQuotes = false;
+                        }
+                    } else if (c == '"') {
+                        inQuotes = true;
+                        quoted = true;
+                    } else if (c == ',') {
+                        endField(quoted);
+                        quoted = false;
+                    } else if (c == '\n') {
+                        endField(quoted);
+                        record++;
+                        return true;
+                    } else if (c != '\r') {
+                        field.append((char) c);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (inQuotes) {
+                throw new ImportFormatException(record + 1, "a quoted field is not closed");
+            }
+            if (empty) {
+                return false;
+            }
+            endField(quoted);
+            record++;
+            return true;
+        }
+
+        private int peek() throws IOException {
+            reader.mark(1);
+            int c = reader.read();
+            reader.reset();
+            return c;
+        }
+
+        private void endField(boolean quoted) {
+            fields.add(field.isEmpty() && !quoted ? null : field.toString());
+            field.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.william.williamRestApi.services.impl;
+
+import com.william.williamRestApi.services.BookImportService;
+import com.william.williamRestApi.services.ImportFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Command line mode: started with --app.books.import.file=catalog.csv (or .ndjson / .jsonl) the application
+ * imports the file and exits, with status 1 if the import failed. BookImportEnvironmentPostProcessor turns the
+ * web server off in this mode, and the main method exits with the code reported here.
+ */
+@Component
+@ConditionalOnProperty(name = "app.books.import.file")
+class BookImportRunner implements ApplicationRunner, ExitCodeGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(BookImportRunner.class);
+
+    private BookImportService importService;
+    private Path file;
+    private int exitCode;
+
+    BookImportRunner(BookImportService importService, @Value("${app.books.import.file}") Path file) {
+        this.importService = importService;
+        this.file = file;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try (InputStream input = Files.newInputStream(file)) {
+            importService.importBooks(input, ImportFormat.forFileName(file.getFileName().toString()));
+        } catch (IOException | RuntimeException e) {
+            log.error("Import of {} failed", file, e);
+            exitCode = 1;
+        }
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+}
@@ -0,0 +1,98 @@
+package com.william.williamRestApi.services.impl;
+
+import com.william.williamRestApi.reposotories.BookRepository;
+import com.william.williamRestApi.reposotories.ImportMergeResult;
+import com.william.williamRestApi.services.BookImportResult;
+import com.william.williamRestApi.services.BookImportService;
+import com.william.williamRestApi.services.ImportFormat;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+@Service
+public class BookImportServiceImpl implements BookImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookImportServiceImpl.class);
+
+    private record ImportRun(long rows, ImportMergeResult merged, long transactionId) {
+    }
+
+    private BookRepository bookRepository;
+    private TransactionTemplate transactionTemplate;
+    private CatalogCacheEvictor cacheEvictor;
+    private BookSearchIndexer searchIndexer;
+    private ObjectMapper objectMapper;
+    private Counter importedRows;
+    private long progressInterval;
+
+    public BookImportServiceImpl(BookRepository bookRepository, PlatformTransactionManager transactionManager,
+                                 CatalogCacheEvictor cacheEvictor, BookSearchIndexer searchIndexer,
+                                 ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                 @Value("${app.books.import.progress-interval:100000}") long progressInterval) {
+        this.bookRepository = bookRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cacheEvictor = cacheEvictor;
+        this.searchIndexer = searchIndexer;
+        this.objectMapper = objectMapper;
+        this.importedRows = Counter.builder("books.import.rows")
+                .description("Rows copied into the import staging table")
+                .register(meterRegistry);
+        this.progressInterval = progressInterval;
+    }
+
+    /**
+     * Copy, merge and the transaction id capture run in one transaction. Once it has committed the caches are
+     * cleared, and the search index picks up exactly the rows that transaction wrote.
+     */
+    @Override
+    public BookImportResult importBooks(InputStream input, ImportFormat format) {
+        long start = System.nanoTime();
+        BookImportReaders.Books books = BookImportReaders.open(input, format, objectMapper);
+        ImportRun run = transactionTemplate.execute(status -> {
+            bookRepository.createImportStaging();
+            long rows = bookRepository.copyToImportStaging(books, progressLogger(start));
+            log.info("Copied {} rows into staging, merging", rows);
+            ImportMergeResult merged = bookRepository.mergeImportStaging(books.hasTitles(), books.hasAuthors());
+            return new ImportRun(rows, merged, bookRepository.currentTransactionId());
+        });
+        cacheEvictor.evictAll();
+        searchIndexer.indexBooksWrittenBy(run.transactionId());
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        BookImportResult result = new BookImportResult(run.rows(), run.merged().getAuthorsCreated(),
+                run.merged().getBooksInserted(), run.merged().getBooksUpdated(), elapsedMillis);
+        log.info("Imported {} rows in {} ms ({} rows/s): {} books inserted, {} updated, {} authors created",
+                result.getRows(), elapsedMillis, result.getRowsPerSecond(), result.getBooksInserted(),
+                result.getBooksUpdated(), result.getAuthorsCreated());
+        return result;
+    }
+
+    private LongConsumer progressLogger(long start) {
+        return new LongConsumer() {
+            private long counted;
+            private long nextReport = progressInterval;
+
+            @Override
+            public void accept(long rows) {
+                importedRows.increment(rows - counted);
+                counted = rows;
+                if (rows >= nextReport) {
+                    long elapsedNanos = Math.max(1, System.nanoTime() - start);
+                    log.info("Import progress: {} rows ({} rows/s)", rows,
+                            rows * TimeUnit.SECONDS.toNanos(1) / elapsedNanos);
+                    nextReport = rows - rows % progressInterval + progressInterval;
+                }
+            }
+        };
+    }
+}
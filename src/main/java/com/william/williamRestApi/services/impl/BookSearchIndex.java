@@ -0,0 +1,496 @@
+package com.william.williamRestApi.services.impl;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over book titles and author names.
+ *
+ * <p>Every token is indexed under its full form and under its edge n-grams (prefixes of MIN_GRAM to MAX_GRAM
+ * characters). A query matches a book when every query token is a prefix of some title or author token. Books
+ * are ranked by the summed weight of the matches, with title matches counting more than author matches and full
+ * token matches counting extra.
+ *
+ * <p>Books are numbered with int doc ids. The postings live in immutable {@link Segment}s: a sorted term array
+ * over one flat int array of doc ids. Readers take the current {@link State} from a volatile field and never
+ * lock. Writers are serialized. Each write adds a segment, and adjacent segments are merged while the older one
+ * is not much larger, so there are O(log n) segments and a posting is copied O(log n) times. An updated book
+ * gets a new doc id, and its old id is marked in a deleted bitset before the write is published. Merges drop
+ * deleted docs. Once half the doc ids are deleted the index is compacted: live books are renumbered densely in
+ * their old order, into a single segment.
+ */
+@Component
+class BookSearchIndex {
+
+    private static final int MIN_GRAM = 2;
+    private static final int MAX_GRAM = 12;
+
+    private static final int MERGE_FACTOR = 2;
+    private static final double COMPACT_DELETED_RATIO = 0.5;
+    private static final int MIN_DOC_CAPACITY = 1024;
+
+    private static final float TITLE_WEIGHT = 2f;
+    private static final float AUTHOR_WEIGHT = 1f;
+
+    private static final char TITLE_PREFIX = 't';
+    private static final char TITLE_TOKEN = 'T';
+    private static final char AUTHOR_PREFIX = 'a';
+    private static final char AUTHOR_TOKEN = 'A';
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    record IndexedBook(String isbn, String title, String authorName) {
+    }
+
+    private record State(List<Segment> segments, String[] isbns, int docCount, AtomicLongArray deleted) {
+    }
+
+    private volatile State state = new State(List.of(), new String[MIN_DOC_CAPACITY], 0, new AtomicLongArray(16));
+
+    // Writer-side bookkeeping, guarded by this.
+    private Map<String, Integer> docByIsbn = new HashMap<>();
+    private int deletedDocs;
+    private List<Segment> buildSegments;
+    private Set<String> touchedDuringBuild;
+
+    List<String> search(String query, int limit) {
+        State current = state;
+        List<String> tokens = tokenize(query);
+        tokens.removeIf(token -> token.length() < MIN_GRAM);
+        if (tokens.isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        ScoredDocs matches = null;
+        for (String token : tokens) {
+            String gram = token.length() > MAX_GRAM ? token.substring(0, MAX_GRAM) : token;
+            ScoredDocs tokenMatches = ScoredDocs.EMPTY;
+            tokenMatches = addPostings(current, tokenMatches, TITLE_PREFIX + gram, TITLE_WEIGHT);
+            tokenMatches = addPostings(current, tokenMatches, TITLE_TOKEN + token, TITLE_WEIGHT);
+            tokenMatches = addPostings(current, tokenMatches, AUTHOR_PREFIX + gram, AUTHOR_WEIGHT);
+            tokenMatches = addPostings(current, tokenMatches, AUTHOR_TOKEN + token, AUTHOR_WEIGHT);
+            matches = matches == null ? tokenMatches : matches.intersect(tokenMatches);
+            if (matches.size == 0) {
+                return List.of();
+            }
+        }
+        return topIsbns(current, matches, limit);
+    }
+
+    synchronized void put(Collection<IndexedBook> books) {
+        if (books.isEmpty()) {
+            return;
+        }
+        State current = state;
+        String[] isbns = current.isbns();
+        int docCount = current.docCount();
+        Map<String, IntList> postings = new HashMap<>();
+        List<Integer> replacedDocs = new ArrayList<>();
+        for (IndexedBook book : books) {
+            if (docCount == isbns.length) {
+                isbns = Arrays.copyOf(isbns, isbns.length * 2);
+            }
+            int doc = docCount++;
+            isbns[doc] = book.isbn();
+            Integer replacedDoc = docByIsbn.put(book.isbn(), doc);
+            if (replacedDoc != null) {
+                replacedDocs.add(replacedDoc);
+            }
+            if (buildSegments != null) {
+                touchedDuringBuild.add(book.isbn());
+            }
+            addPostings(postings, book, doc);
+        }
+
+        AtomicLongArray deleted = withCapacity(current.deleted(), docCount);
+        // Before publishing, so a reader never sees the old and the new doc of one book together.
+        replacedDocs.forEach(doc -> markDeleted(deleted, doc));
+        deletedDocs += replacedDocs.size();
+        state = new State(addSegment(current.segments(), Segment.of(postings), deleted), isbns, docCount, deleted);
+        compactIfMostlyDeleted();
+    }
+
+    synchronized void remove(String isbn) {
+        Integer doc = docByIsbn.remove(isbn);
+        if (buildSegments != null) {
+            touchedDuringBuild.add(isbn);
+        }
+        if (doc != null) {
+            markDeleted(state.deleted(), doc);
+            deletedDocs++;
+            compactIfMostlyDeleted();
+        }
+    }
+
+    /**
+     * The number of doc ids in use, live or deleted.
+     */
+    synchronized int docCount() {
+        return state.docCount();
+    }
+
+    /**
+     * The number of segments readers search.
+     */
+    synchronized int segmentCount() {
+        return state.segments().size();
+    }
+
+    /**
+     * Starts a bulk load. Books added with {@link #addScanned} stay invisible until {@link #finishBuild}, and
+     * are skipped if a live write touched the same isbn in the meantime, since the live write is newer.
+     */
+    synchronized void beginBuild() {
+        buildSegments = List.of();
+        touchedDuringBuild = new HashSet<>();
+    }
+
+    synchronized void addScanned(Collection<IndexedBook> books) {
+        State current = state;
+        String[] isbns = current.isbns();
+        int docCount = current.docCount();
+        Map<String, IntList> postings = new HashMap<>();
+        for (IndexedBook book : books) {
+            if (touchedDuringBuild.contains(book.isbn()) || docByIsbn.containsKey(book.isbn())) {
+                continue;
+            }
+            if (docCount == isbns.length) {
+                isbns = Arrays.copyOf(isbns, isbns.length * 2);
+            }
+            int doc = docCount++;
+            isbns[doc] = book.isbn();
+            docByIsbn.put(book.isbn(), doc);
+            addPostings(postings, book, doc);
+        }
+        AtomicLongArray deleted = withCapacity(current.deleted(), docCount);
+        buildSegments = addSegment(buildSegments, Segment.of(postings), deleted);
+        // Scanned docs are not in any published segment yet, so publishing the new doc table does not expose them.
+        state = new State(current.segments(), isbns, docCount, deleted);
+    }
+
+    synchronized void finishBuild() {
+        State current = state;
+        List<Segment> segments = current.segments();
+        for (Segment segment : buildSegments) {
+            segments = addSegment(segments, segment, current.deleted());
+        }
+        buildSegments = null;
+        touchedDuringBuild = null;
+        state = new State(segments, current.isbns(), current.docCount(), current.deleted());
+        compactIfMostlyDeleted();
+    }
+
+    /**
+     * Not while a bulk load runs, since its segments hold the current doc ids. The next write after it checks again.
+     */
+    private boolean compactIfMostlyDeleted() {
+        if (buildSegments != null || deletedDocs == 0 || deletedDocs < state.docCount() * COMPACT_DELETED_RATIO) {
+            return false;
+        }
+        compact();
+        return true;
+    }
+
+    private void compact() {
+        State current = state;
+        int[] renumbered = new int[current.docCount()];
+        int liveDocs = current.docCount() - deletedDocs;
+        String[] isbns = new String[Math.max(MIN_DOC_CAPACITY, liveDocs * 2)];
+        int docCount = 0;
+        for (int doc = 0; doc < current.docCount(); doc++) {
+            if (isDeleted(current.deleted(), doc)) {
+                renumbered[doc] = -1;
+            } else {
+                renumbered[doc] = docCount;
+                isbns[docCount] = current.isbns()[doc];
+                docByIsbn.put(isbns[docCount], docCount);
+                docCount++;
+            }
+        }
+
+        Segment merged = Segment.EMPTY;
+        for (Segment segment : current.segments()) {
+            merged = Segment.merge(merged, segment, current.deleted());
+        }
+        // The merge wrote fresh arrays, and renumbering keeps the order, so each posting list stays sorted.
+        int[] postings = merged.postings();
+        for (int i = 0; i < postings.length; i++) {
+            postings[i] = renumbered[postings[i]];
+        }
+        deletedDocs = 0;
+        List<Segment> segments = merged.size() == 0 ? List.of() : List.of(merged);
+        state = new State(segments, isbns, docCount, withCapacity(new AtomicLongArray(16), docCount));
+    }
+
+    /**
+     * Merges the new segment with its neighbours while the older one is at most MERGE_FACTOR times its size, so
+     * segment sizes shrink geometrically from oldest to newest.
+     */
+    private static List<Segment> addSegment(List<Segment> segments, Segment segment, AtomicLongArray deleted) {
+        if (segment.size() == 0) {
+            return segments;
+        }
+        List<Segment> result = new ArrayList<>(segments);
+        result.add(segment);
+        while (result.size() > 1 && result.get(result.size() - 2).size() <= (long) result.getLast().size() * MERGE_FACTOR) {
+            Segment newer = result.removeLast();
+            Segment merged = Segment.merge(result.removeLast(), newer, deleted);
+            if (merged.size() > 0) {
+                result.add(merged);
+            }
+        }
+        return List.copyOf(result);
+    }
+
+    private static void addPostings(Map<String, IntList> postings, IndexedBook book, int doc) {
+        for (String term : terms(book)) {
+            postings.computeIfAbsent(term, key -> new IntList()).add(doc);
+        }
+    }
+
+    private static ScoredDocs addPostings(State state, ScoredDocs matches, String term, float weight) {
+        for (Segment segment : state.segments()) {
+            int index = segment.find(term);
+            if (index >= 0) {
+                matches = matches.union(segment.postings(), segment.starts()[index], segment.starts()[index + 1], weight);
+            }
+        }
+        return matches;
+    }
+
+    private static List<String> topIsbns(State state, ScoredDocs matches, int limit) {
+        // Lowest rank first, so the heap can drop it; ties go to the more recently indexed book.
+        Comparator<Integer> byRank = (left, right) -> {
+            int byScore = Float.compare(matches.scores[left], matches.scores[right]);
+            return byScore != 0 ? byScore : Integer.compare(matches.docs[left], matches.docs[right]);
+        };
+        PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, byRank);
+        for (int i = 0; i < matches.size; i++) {
+            if (isDeleted(state.deleted(), matches.docs[i])) {
+                continue;
+            }
+            top.add(i);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Integer> ranked = new ArrayList<>(top);
+        ranked.sort(byRank.reversed());
+        List<String> isbns = new ArrayList<>(ranked.size());
+        ranked.forEach(i -> isbns.add(state.isbns()[matches.docs[i]]));
+        return isbns;
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null) {
+            return new ArrayList<>();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static Set<String> terms(IndexedBook book) {
+        Set<String> terms = new HashSet<>();
+        addTerms(terms, book.title(), TITLE_TOKEN, TITLE_PREFIX);
+        addTerms(terms, book.authorName(), AUTHOR_TOKEN, AUTHOR_PREFIX);
+        return terms;
+    }
+
+    private static void addTerms(Set<String> terms, String text, char tokenKey, char prefixKey) {
+        for (String token : tokenize(text)) {
+            terms.add(tokenKey + token);
+            for (int length = MIN_GRAM; length <= Math.min(MAX_GRAM, token.length()); length++) {
+                terms.add(prefixKey + token.substring(0, length));
+            }
+        }
+    }
+
+    /**
+     * Merges two sorted doc ranges into out from outFrom, dropping deleted docs, and returns the new end of out.
+     */
+    private static int mergeLive(int[] left, int leftFrom, int leftTo, int[] right, int rightFrom, int rightTo,
+                                 int[] out, int outFrom, AtomicLongArray deleted) {
+        int i = leftFrom, j = rightFrom, size = outFrom;
+        while (i < leftTo || j < rightTo) {
+            int doc = j == rightTo || (i < leftTo && left[i] < right[j]) ? left[i++] : right[j++];
+            if (!isDeleted(deleted, doc)) {
+                out[size++] = doc;
+            }
+        }
+        return size;
+    }
+
+    private static AtomicLongArray withCapacity(AtomicLongArray deleted, int docCount) {
+        int words = (docCount + 63) >>> 6;
+        if (words <= deleted.length()) {
+            return deleted;
+        }
+        AtomicLongArray grown = new AtomicLongArray(Math.max(words, deleted.length() * 2));
+        for (int i = 0; i < deleted.length(); i++) {
+            grown.set(i, deleted.get(i));
+        }
+        return grown;
+    }
+
+    private static void markDeleted(AtomicLongArray deleted, int doc) {
+        deleted.getAndUpdate(doc >>> 6, word -> word | (1L << doc));
+    }
+
+    private static boolean isDeleted(AtomicLongArray deleted, int doc) {
+        int word = doc >>> 6;
+        return word < deleted.length() && (deleted.get(word) & (1L << doc)) != 0;
+    }
+
+    /**
+     * Immutable posting lists. The terms are sorted, and the docs of terms[i] are postings[starts[i]] up to
+     * postings[starts[i + 1]], in ascending order.
+     */
+    private record Segment(String[] terms, int[] starts, int[] postings) {
+
+        static final Segment EMPTY = new Segment(new String[0], new int[1], new int[0]);
+
+        static Segment of(Map<String, IntList> postingsByTerm) {
+            String[] terms = postingsByTerm.keySet().toArray(new String[0]);
+            Arrays.sort(terms);
+            int[] starts = new int[terms.length + 1];
+            int size = 0;
+            for (int i = 0; i < terms.length; i++) {
+                starts[i] = size;
+                size += postingsByTerm.get(terms[i]).size;
+            }
+            starts[terms.length] = size;
+            int[] postings = new int[size];
+            for (int i = 0; i < terms.length; i++) {
+                IntList docs = postingsByTerm.get(terms[i]);
+                System.arraycopy(docs.values, 0, postings, starts[i], docs.size);
+            }
+            return new Segment(terms, starts, postings);
+        }
+
+        /**
+         * Merges the two term by term into new arrays, without deleted docs or the terms left with none.
+         */
+        static Segment merge(Segment left, Segment right, AtomicLongArray deleted) {
+            String[] terms = new String[left.terms.length + right.terms.length];
+            int[] starts = new int[terms.length + 1];
+            int[] postings = new int[left.size() + right.size()];
+            int i = 0, j = 0, termCount = 0, size = 0;
+            while (i < left.terms.length || j < right.terms.length) {
+                int order = i == left.terms.length ? 1
+                        : j == right.terms.length ? -1 : left.terms[i].compareTo(right.terms[j]);
+                String term = order <= 0 ? left.terms[i] : right.terms[j];
+                int leftFrom = order <= 0 ? left.starts[i] : 0;
+                int leftTo = order <= 0 ? left.starts[++i] : 0;
+                int rightFrom = order >= 0 ? right.starts[j] : 0;
+                int rightTo = order >= 0 ? right.starts[++j] : 0;
+                int end = mergeLive(left.postings, leftFrom, leftTo, right.postings, rightFrom, rightTo,
+                        postings, size, deleted);
+                if (end > size) {
+                    terms[termCount] = term;
+                    starts[termCount++] = size;
+                    size = end;
+                }
+            }
+            starts[termCount] = size;
+            return new Segment(Arrays.copyOf(terms, termCount), Arrays.copyOf(starts, termCount + 1),
+                    size == postings.length ? postings : Arrays.copyOf(postings, size));
+        }
+
+        int find(String term) {
+            return Arrays.binarySearch(terms, term);
+        }
+
+        int size() {
+            return postings.length;
+        }
+    }
+
+    private static final class IntList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    /**
+     * Doc ids in ascending order with a score per doc.
+     */
+    private static final class ScoredDocs {
+
+        static final ScoredDocs EMPTY = new ScoredDocs(new int[0], new float[0], 0);
+
+        final int[] docs;
+        final float[] scores;
+        final int size;
+
+        ScoredDocs(int[] docs, float[] scores, int size) {
+            this.docs = docs;
+            this.scores = scores;
+            this.size = size;
+        }
+
+        ScoredDocs union(int[] postings, int from, int to, float weight) {
+            if (from == to) {
+                return this;
+            }
+            int[] resultDocs = new int[size + to - from];
+            float[] resultScores = new float[resultDocs.length];
+            int i = 0, j = from, n = 0;
+            while (i < size || j < to) {
+                if (j == to || (i < size && docs[i] < postings[j])) {
+                    resultDocs[n] = docs[i];
+                    resultScores[n++] = scores[i++];
+                } else if (i == size || postings[j] < docs[i]) {
+                    resultDocs[n] = postings[j++];
+                    resultScores[n++] = weight;
+                } else {
+                    resultDocs[n] = docs[i];
+                    resultScores[n++] = scores[i++] + weight;
+                    j++;
+                }
+            }
+            return new ScoredDocs(resultDocs, resultScores, n);
+        }
+
+        ScoredDocs intersect(ScoredDocs other) {
+            int[] resultDocs = new int[Math.min(size, other.size)];
+            float[] resultScores = new float[resultDocs.length];
+            int i = 0, j = 0, n = 0;
+            while (i < size && j < other.size) {
+                if (docs[i] < other.docs[j]) {
+                    i++;
+                } else if (other.docs[j] < docs[i]) {
+                    j++;
+                } else {
+                    resultDocs[n] = docs[i];
+                    resultScores[n++] = scores[i++] + other.scores[j++];
+                }
+            }
+            return new ScoredDocs(resultDocs, resultScores, n);
+        }
+    }
+}
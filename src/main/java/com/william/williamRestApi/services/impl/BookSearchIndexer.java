@@ -0,0 +1,110 @@
+package com.william.williamRestApi.services.impl;
+
+import com.william.williamRestApi.domain.entities.BookEntity;
+import com.william.williamRestApi.reposotories.BookRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps {@link BookSearchIndex} in step with the database. At startup the index is loaded from one streaming
+ * scan of the books table. After that every book write re-indexes the books it touched once the transaction
+ * commits, so a rolled-back write never shows up in search. A command line import (app.books.import.file) exits
+ * once it is done and serves no searches, so it builds no index.
+ */
+@Component
+class BookSearchIndexer {
+
+    private static final int BUILD_CHUNK_SIZE = 1000;
+
+    private BookRepository bookRepository;
+    private EntityManager entityManager;
+    private BookSearchIndex searchIndex;
+    private boolean commandLineImport;
+    private volatile boolean buildStarted;
+
+    BookSearchIndexer(BookRepository bookRepository, EntityManager entityManager, BookSearchIndex searchIndex,
+                      @Value("${app.books.import.file:}") String importFile) {
+        this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+        this.searchIndex = searchIndex;
+        this.commandLineImport = !importFile.isEmpty();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void buildIndex() {
+        if (commandLineImport) {
+            return;
+        }
+        buildStarted = true;
+        searchIndex.beginBuild();
+        List<BookSearchIndex.IndexedBook> chunk = new ArrayList<>(BUILD_CHUNK_SIZE);
+        try (Stream<BookEntity> books = bookRepository.streamAll()) {
+            books.forEach(book -> {
+                chunk.add(toIndexedBook(book));
+                entityManager.detach(book);
+                if (chunk.size() == BUILD_CHUNK_SIZE) {
+                    searchIndex.addScanned(chunk);
+                    chunk.clear();
+                }
+            });
+        }
+        searchIndex.addScanned(chunk);
+        searchIndex.finishBuild();
+    }
+
+    public void indexBooks(Collection<BookEntity> books) {
+        List<BookSearchIndex.IndexedBook> indexedBooks = books.stream()
+                .map(BookSearchIndexer::toIndexedBook)
+                .collect(Collectors.toList());
+        TransactionCallbacks.afterCommit(() -> searchIndex.put(indexedBooks));
+    }
+
+    /**
+     * Indexes the books written by a committed transaction, such as a bulk import, reading them in chunks.
+     * Before the startup scan has begun there is nothing to do, since the scan will see them. Not read-only, so
+     * the rows are read from the primary that just committed them.
+     */
+    @Transactional
+    public void indexBooksWrittenBy(long transactionId) {
+        if (!buildStarted) {
+            return;
+        }
+        List<BookSearchIndex.IndexedBook> chunk = new ArrayList<>(BUILD_CHUNK_SIZE);
+        bookRepository.forEachBookWrittenBy(transactionId, book -> {
+            chunk.add(toIndexedBook(book));
+            if (chunk.size() == BUILD_CHUNK_SIZE) {
+                searchIndex.put(chunk);
+                chunk.clear();
+            }
+        });
+        if (!chunk.isEmpty()) {
+            searchIndex.put(chunk);
+        }
+    }
+
+    public void removeBook(String isbn) {
+        TransactionCallbacks.afterCommit(() -> searchIndex.remove(isbn));
+    }
+
+    public void reindexAuthors(Collection<Long> authorIds) {
+        if (!authorIds.isEmpty()) {
+            indexBooks(bookRepository.findByAuthorEntityIdIn(authorIds));
+        }
+    }
+
+    private static BookSearchIndex.IndexedBook toIndexedBook(BookEntity book) {
+        String authorName = book.getAuthorEntity() == null ? null : book.getAuthorEntity().getName();
+        return new BookSearchIndex.IndexedBook(book.getIsbn(), book.getTitle(), authorName);
+    }
+}
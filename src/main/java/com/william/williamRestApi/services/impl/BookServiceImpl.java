@@ -1,65 +1,371 @@
 package com.william.williamRestApi.services.impl;
 
+import com.william.williamRestApi.config.CacheConfig;
+import com.william.williamRestApi.domain.entities.AuthorEntity;
 import com.william.williamRestApi.domain.entities.BookEntity;
+import com.william.williamRestApi.reposotories.AuthorRepository;
 import com.william.williamRestApi.reposotories.BookRepository;
 import com.william.williamRestApi.services.BookService;
+import com.william.williamRestApi.services.PreconditionFailedException;
+import com.william.williamRestApi.services.UpsertResult;
+import jakarta.persistence.EntityManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 @Service
 public class BookServiceImpl implements BookService {
 
+    private static final int AUTHOR_ID_BATCH_SIZE = 500;
+
     private BookRepository bookRepository;
+    private AuthorRepository authorRepository;
+    private EntityManager entityManager;
+    private CatalogCacheEvictor cacheEvictor;
+    private BookSearchIndex searchIndex;
+    private BookSearchIndexer searchIndexer;
+    private ApproximateBookCount approximateCount;
+    private SingleFlight<String, Optional<BookEntity>> bookLookups;
 
-    public BookServiceImpl(BookRepository bookRepository) {
+    public BookServiceImpl(BookRepository bookRepository, AuthorRepository authorRepository, EntityManager entityManager,
+                           CatalogCacheEvictor cacheEvictor, BookSearchIndex searchIndex, BookSearchIndexer searchIndexer,
+                           ApproximateBookCount approximateCount, SingleFlightLookups singleFlightLookups) {
         this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.entityManager = entityManager;
+        this.cacheEvictor = cacheEvictor;
+        this.searchIndex = searchIndex;
+        this.searchIndexer = searchIndexer;
+        this.approximateCount = approximateCount;
+        this.bookLookups = singleFlightLookups.create("book");
     }
 
     @Override
+    @Transactional
     public BookEntity createUpdateBook(String isbn, BookEntity book) {
-       book.setIsbn(isbn);
-        return bookRepository.save(book);
+        return upsertBook(isbn, book, true).getEntity();
+    }
+
+    /**
+     * Writes the book row with one INSERT ... ON CONFLICT statement, or with a version-guarded UPDATE when the
+     * caller supplied the version it expects. By default the author is only linked by id, so it is neither
+     * loaded nor written. With createAuthor the nested author is created, or updated if its id exists, and
+     * flushed first because the book row references it.
+     */
+    @Override
+    @Transactional
+    public UpsertResult<BookEntity> upsertBook(String isbn, BookEntity book, boolean createAuthor) {
+        book.setIsbn(isbn);
+        Long expectedVersion = book.getVersion();
+        Map<Long, AuthorEntity> existingAuthors = new HashMap<>();
+        Set<Long> renamedAuthorIds = new HashSet<>();
+        if (createAuthor) {
+            existingAuthors = loadExistingAuthors(List.of(book));
+            book.setAuthorEntity(resolveAuthor(book.getAuthorEntity(), existingAuthors, renamedAuthorIds));
+            if (book.getAuthorEntity() != null) {
+                entityManager.flush();
+            }
+        } else {
+            book.setAuthorEntity(referenceAuthor(book.getAuthorEntity()));
+        }
+
+        boolean created;
+        if (expectedVersion == null) {
+            created = bookRepository.upsert(book);
+        } else if (bookRepository.updateIfVersion(book, expectedVersion)) {
+            created = false;
+        } else {
+            throw new PreconditionFailedException("Book " + isbn + " is no longer at version " + expectedVersion);
+        }
+
+        cacheEvictor.evictBook(isbn);
+        cacheEvictor.evictAuthors(existingAuthors.keySet());
+        searchIndexer.indexBooks(List.of(book));
+        searchIndexer.reindexAuthors(renamedAuthorIds);
+        return new UpsertResult<>(book, created);
+    }
+
+    /**
+     * Upserts all books in one transaction. A book carrying a version is only written if that is still its current
+     * version. Authors are linked by id unless createAuthor is set, in which case they are created or updated as in
+     * {@link #upsertBook}. Linked books are written by one upsert that returns their author rows, so no author is
+     * loaded. Otherwise existing books and authors are loaded with one IN query each, and the remaining inserts and
+     * dirty-checked updates are flushed as JDBC batches.
+     */
+    @Override
+    @Transactional
+    public List<UpsertResult<BookEntity>> createUpdateBooks(List<BookEntity> books, boolean createAuthor) {
+        if (!createAuthor) {
+            return upsertBooksLinkingAuthors(books);
+        }
+        Map<String, BookEntity> existingBooks = new HashMap<>();
+        bookRepository.findAllById(books.stream().map(BookEntity::getIsbn).collect(Collectors.toList()))
+                .forEach(book -> existingBooks.put(book.getIsbn(), book));
+
+        Map<Long, AuthorEntity> existingAuthors = loadExistingAuthors(books);
+        Set<Long> renamedAuthorIds = new HashSet<>();
+
+        List<UpsertResult<BookEntity>> results = new ArrayList<>(books.size());
+        for (BookEntity book : books) {
+            AuthorEntity author = resolveAuthor(book.getAuthorEntity(), existingAuthors, renamedAuthorIds);
+            cacheEvictor.evictBook(book.getIsbn());
+            BookEntity existingBook = existingBooks.get(book.getIsbn());
+            checkVersion(book.getVersion(), existingBook == null ? null : existingBook.getVersion(), book.getIsbn());
+            if (existingBook != null) {
+                existingBook.setTitle(book.getTitle());
+                existingBook.setAuthorEntity(author);
+                results.add(new UpsertResult<>(existingBook, false));
+            } else {
+                book.setAuthorEntity(author);
+                entityManager.persist(book);
+                existingBooks.put(book.getIsbn(), book);
+                results.add(new UpsertResult<>(book, true));
+            }
+        }
+        cacheEvictor.evictAuthors(existingAuthors.keySet());
+        searchIndexer.indexBooks(results.stream().map(UpsertResult::getEntity).collect(Collectors.toList()));
+        searchIndexer.reindexAuthors(renamedAuthorIds);
+        return results;
+    }
+
+    /**
+     * When an isbn repeats, its last book is written and each expected version is checked against the version the
+     * book had before the batch, or 0 after the batch created it.
+     */
+    private List<UpsertResult<BookEntity>> upsertBooksLinkingAuthors(List<BookEntity> books) {
+        Map<String, BookEntity> lastBooks = new LinkedHashMap<>();
+        List<Long> expectedVersions = new ArrayList<>(books.size());
+        for (BookEntity book : books) {
+            requireAuthorId(book.getAuthorEntity());
+            lastBooks.put(book.getIsbn(), book);
+            expectedVersions.add(book.getVersion());
+        }
+        Set<String> inserted = bookRepository.upsertAll(new ArrayList<>(lastBooks.values()));
+
+        Set<String> seenIsbns = new HashSet<>();
+        List<UpsertResult<BookEntity>> results = new ArrayList<>(books.size());
+        for (int i = 0; i < books.size(); i++) {
+            String isbn = books.get(i).getIsbn();
+            BookEntity book = lastBooks.get(isbn);
+            boolean first = seenIsbns.add(isbn);
+            Long currentVersion;
+            if (inserted.contains(isbn)) {
+                currentVersion = first ? null : 0L;
+            } else {
+                currentVersion = book.getVersion() - 1;
+            }
+            checkVersion(expectedVersions.get(i), currentVersion, isbn);
+            cacheEvictor.evictBook(isbn);
+            results.add(new UpsertResult<>(book, first && inserted.contains(isbn)));
+        }
+        searchIndexer.indexBooks(lastBooks.values());
+        return results;
+    }
+
+    private Map<Long, AuthorEntity> loadExistingAuthors(List<BookEntity> books) {
+        List<Long> authorIds = books.stream()
+                .map(BookEntity::getAuthorEntity)
+                .filter(Objects::nonNull)
+                .map(AuthorEntity::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        Map<Long, AuthorEntity> existingAuthors = new HashMap<>();
+        if (!authorIds.isEmpty()) {
+            authorRepository.findAllById(authorIds).forEach(author -> existingAuthors.put(author.getId(), author));
+        }
+        return existingAuthors;
+    }
+
+    private AuthorEntity resolveAuthor(AuthorEntity author, Map<Long, AuthorEntity> existingAuthors,
+                                       Set<Long> renamedAuthorIds) {
+        if (author == null) {
+            return null;
+        }
+        AuthorEntity existingAuthor = existingAuthors.get(author.getId());
+        if (existingAuthor != null) {
+            if (!Objects.equals(existingAuthor.getName(), author.getName())) {
+                renamedAuthorIds.add(existingAuthor.getId());
+            }
+            existingAuthor.setName(author.getName());
+            existingAuthor.setAge(author.getAge());
+            return existingAuthor;
+        }
+        author.setId(null);
+        author.setVersion(null);
+        entityManager.persist(author);
+        return author;
+    }
+
+    private AuthorEntity referenceAuthor(AuthorEntity author) {
+        if (author == null) {
+            return null;
+        }
+        requireAuthorId(author);
+        return entityManager.getReference(AuthorEntity.class, author.getId());
+    }
+
+    private static void requireAuthorId(AuthorEntity author) {
+        if (author != null && author.getId() == null) {
+            throw new IllegalArgumentException("Author id is required unless the author is created inline");
+        }
+    }
+
+    private static void checkVersion(Long expectedVersion, Long currentVersion, String isbn) {
+        if (expectedVersion != null && !expectedVersion.equals(currentVersion)) {
+            throw new PreconditionFailedException("Book " + isbn + " is no longer at version " + expectedVersion);
+        }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BookEntity> findAll() {
         return StreamSupport.stream(bookRepository.findAll().spliterator(), false)
                 .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<BookEntity> findAll(Pageable pageable) {
        return bookRepository.findAll(pageable);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Slice<BookEntity> findSlice(Pageable pageable) {
+        return bookRepository.findAllBy(pageable);
+    }
+
+    @Override
+    public long approximateCount() {
+        return approximateCount.get();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookEntity> findAllAfterIsbn(String isbn, int limit) {
+        if (isbn == null) {
+            return bookRepository.findAllByOrderByIsbnAsc(Limit.of(limit));
+        }
+        return bookRepository.findByIsbnGreaterThanOrderByIsbnAsc(isbn, Limit.of(limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookEntity> findAllAfterTitle(String title, String isbn, int limit) {
+        if (title == null) {
+            return bookRepository.findByTitleIsNotNullOrderByTitleAscIsbnAsc(Limit.of(limit));
+        }
+        return bookRepository.findAfterTitle(title, isbn, Limit.of(limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookEntity> findAllByAuthorIds(Collection<Long> authorIds) {
+        List<Long> ids = new ArrayList<>(authorIds);
+        List<BookEntity> books = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += AUTHOR_ID_BATCH_SIZE) {
+            int to = Math.min(from + AUTHOR_ID_BATCH_SIZE, ids.size());
+            books.addAll(bookRepository.findByAuthorEntityIdIn(ids.subList(from, to)));
+        }
+        return books;
+    }
+
+    /**
+     * Ranks matching isbns in the in-memory index, then loads those books with one IN query.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookEntity> search(String query, int limit) {
+        List<String> isbns = searchIndex.search(query, limit);
+        if (isbns.isEmpty()) {
+            return List.of();
+        }
+        Map<String, BookEntity> books = new HashMap<>();
+        bookRepository.findAllById(isbns).forEach(book -> books.put(book.getIsbn(), book));
+        return isbns.stream().map(books::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<BookEntity> consumer) {
+        try (Stream<BookEntity> books = bookRepository.streamAll()) {
+            books.forEach(book -> {
+                consumer.accept(book);
+                entityManager.detach(book);
+                // The author is fetch-joined, not cascaded from the book, so it has to be detached on its own.
+                if (book.getAuthorEntity() != null) {
+                    entityManager.detach(book.getAuthorEntity());
+                }
+            });
+        }
+    }
+
+    /**
+     * Concurrent cache misses for one isbn share a single SELECT. This method is deliberately not transactional:
+     * only the caller that runs the SELECT opens the repository's read-only transaction, so the callers waiting
+     * for its result hold no pooled connection. A caller already inside a transaction must see its own changes
+     * and loads directly.
+     */
+    @Override
+    @Cacheable(cacheNames = CacheConfig.BOOKS_CACHE, key = "#isbn", unless = "#result == null")
     public Optional<BookEntity> findOne(String isbn) {
-        return bookRepository.findById(isbn);
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return bookRepository.findById(isbn);
+        }
+        return bookLookups.load(isbn, () -> bookRepository.findById(isbn));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public boolean isExists(String isbn) {
         return  bookRepository.existsById(isbn) ;
     }
 
     @Override
-    public BookEntity partialUpdate(String isbn, BookEntity bookEntity) {
-        bookEntity.setIsbn(isbn);
+    public Optional<BookEntity> partialUpdate(String isbn, BookEntity bookEntity) {
+        if (bookEntity.getTitle() == null) {
+            return bookRepository.findById(isbn).map(existingBook -> {
+                checkVersion(bookEntity.getVersion(), existingBook.getVersion(), isbn);
+                return existingBook;
+            });
+        }
 
-     return   bookRepository.findById(isbn).map(existingBook -> {
-            Optional.ofNullable(bookEntity.getTitle()).ifPresent(existingBook::setTitle);
-            return bookRepository.save(existingBook);
-        }).orElseThrow(() -> new RuntimeException("Book Does Not Exist"));
+        return bookRepository.patch(isbn, bookEntity.getTitle(), bookEntity.getVersion()).map(result -> {
+            BookEntity patchedBook = result.getEntity();
+            if (result.isChanged()) {
+                cacheEvictor.evictBook(isbn);
+                searchIndexer.indexBooks(List.of(patchedBook));
+            } else {
+                checkVersion(bookEntity.getVersion(), patchedBook.getVersion(), isbn);
+            }
+            return patchedBook;
+        });
     }
 
     @Override
     public void delete(String isbn) {
         bookRepository.deleteById(isbn);
+        cacheEvictor.evictBook(isbn);
+        searchIndexer.removeBook(isbn);
     }
 }
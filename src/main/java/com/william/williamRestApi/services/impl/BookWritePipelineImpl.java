@@ -0,0 +1,269 @@
+package com.william.williamRestApi.services.impl;
+
+import com.william.williamRestApi.domain.entities.AuthorEntity;
+import com.william.williamRestApi.domain.entities.BookEntity;
+import com.william.williamRestApi.services.BookService;
+import com.william.williamRestApi.services.BookWritePipeline;
+import com.william.williamRestApi.services.UpsertResult;
+import com.william.williamRestApi.services.WritePipelineClosedException;
+import com.william.williamRestApi.services.WriteQueueFullException;
+import com.william.williamRestApi.services.WriteTimeoutException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Group commit for single-book writes, enabled with app.book-writes.group-commit.enabled=true. Writes wait on a
+ * bounded queue; one flusher thread takes up to max-batch-size of them, or whatever arrived within max-delay of
+ * the first, and applies them with {@link BookService#createUpdateBooks} in one transaction. When several
+ * unconditional writes in a batch target the same isbn only the last one is applied, and all of their callers get
+ * its result. Several writes to one isbn that include a versioned (If-Match) write are not collapsed; they are
+ * applied one at a time in arrival order, so a write overtaken by an earlier one fails its precondition.
+ * <p>
+ * If the batch fails, for example on a version conflict, its writes are retried one by one, so each caller
+ * gets its own result or error. A full queue is rejected right away instead of letting latency grow, and a
+ * caller waits at most write-timeout for its commit.
+ */
+@Service
+public class BookWritePipelineImpl implements BookWritePipeline, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(BookWritePipelineImpl.class);
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private record PendingWrite(String isbn, BookEntity book, boolean createAuthor,
+                                CompletableFuture<UpsertResult<BookEntity>> result) {
+    }
+
+    private BookService bookService;
+    private TransactionTemplate transactionTemplate;
+    private boolean enabled;
+    private int maxBatchSize;
+    private long maxDelayNanos;
+    private int queueCapacity;
+    private Duration writeTimeout;
+    private BlockingQueue<PendingWrite> queue;
+    private DistributionSummary batchSizes;
+    private volatile boolean running;
+    private Thread flusher;
+
+    public BookWritePipelineImpl(BookService bookService, PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.book-writes.group-commit.enabled:false}") boolean enabled,
+                                 @Value("${app.book-writes.group-commit.max-batch-size:100}") int maxBatchSize,
+                                 @Value("${app.book-writes.group-commit.max-delay:5ms}") Duration maxDelay,
+                                 @Value("${app.book-writes.group-commit.queue-capacity:2000}") int queueCapacity,
+                                 @Value("${app.book-writes.group-commit.write-timeout:5s}") Duration writeTimeout) {
+        this.bookService = bookService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.queueCapacity = queueCapacity;
+        this.writeTimeout = writeTimeout;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("books.write.queue.size", queue, BlockingQueue::size)
+                .description("Book writes waiting for the next group commit")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("books.write.batch.size")
+                .description("Book writes applied per group commit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public UpsertResult<BookEntity> write(String isbn, BookEntity book, boolean createAuthor) {
+        if (!enabled) {
+            return bookService.upsertBook(isbn, book, createAuthor);
+        }
+        if (!running) {
+            throw new WritePipelineClosedException();
+        }
+        PendingWrite write = new PendingWrite(isbn, book, createAuthor, new CompletableFuture<>());
+        if (!queue.offer(write)) {
+            throw new WriteQueueFullException(queueCapacity);
+        }
+        // The flusher may have drained the queue for the last time between the running check and the offer.
+        if (!running && queue.remove(write)) {
+            throw new WritePipelineClosedException();
+        }
+        try {
+            return write.result().orTimeout(writeTimeout.toNanos(), TimeUnit.NANOSECONDS).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                // Still queued means it will never be applied; otherwise it may yet commit after this returns.
+                queue.remove(write);
+                throw new WriteTimeoutException(writeTimeout);
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        flusher = Thread.ofPlatform().name("book-write-flusher").daemon().start(this::runFlusher);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops after the web server, so requests still in flight during a graceful shutdown get flushed.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void runFlusher() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                try {
+                    collect(batch);
+                } catch (InterruptedException e) {
+                    running = false;
+                }
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+            } catch (RuntimeException e) {
+                // Keep the flusher alive, and do not leave the callers of this batch waiting for a result.
+                log.error("Flushing {} book writes failed", batch.size(), e);
+                batch.forEach(write -> write.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void collect(List<PendingWrite> batch) throws InterruptedException {
+        PendingWrite first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                return;
+            }
+            PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        batchSizes.record(batch.size());
+        Map<String, List<PendingWrite>> writesByIsbn = new LinkedHashMap<>();
+        for (PendingWrite write : batch) {
+            writesByIsbn.computeIfAbsent(write.isbn(), isbn -> new ArrayList<>()).add(write);
+        }
+
+        Map<String, List<PendingWrite>> callers = new HashMap<>();
+        List<PendingWrite> lastWrites = new ArrayList<>();
+        List<PendingWrite> inOrder = new ArrayList<>();
+        writesByIsbn.forEach((isbn, writes) -> {
+            if (writes.size() == 1 || writes.stream().allMatch(write -> write.book().getVersion() == null)) {
+                callers.put(isbn, writes);
+                lastWrites.add(writes.get(writes.size() - 1));
+            } else {
+                inOrder.addAll(writes);
+            }
+        });
+
+        if (!lastWrites.isEmpty()) {
+            applyGrouped(lastWrites, callers);
+        }
+        inOrder.forEach(write -> applyAlone(write, List.of(write)));
+    }
+
+    private void applyGrouped(List<PendingWrite> lastWrites, Map<String, List<PendingWrite>> callers) {
+        Map<String, UpsertResult<BookEntity>> results;
+        try {
+            results = transactionTemplate.execute(status -> applyTogether(lastWrites));
+        } catch (RuntimeException e) {
+            log.debug("Group commit of {} book writes failed, applying them one at a time", lastWrites.size(), e);
+            lastWrites.forEach(write -> applyAlone(write, callers.get(write.isbn())));
+            return;
+        }
+        results.forEach((isbn, result) -> callers.get(isbn).forEach(caller -> caller.result().complete(result)));
+    }
+
+    private Map<String, UpsertResult<BookEntity>> applyTogether(Iterable<PendingWrite> writes) {
+        Map<Boolean, List<BookEntity>> booksByMode = new HashMap<>();
+        for (PendingWrite write : writes) {
+            booksByMode.computeIfAbsent(write.createAuthor(), mode -> new ArrayList<>())
+                    .add(copyOf(write.isbn(), write.book()));
+        }
+        Map<String, UpsertResult<BookEntity>> results = new HashMap<>();
+        booksByMode.forEach((createAuthor, books) -> {
+            for (UpsertResult<BookEntity> result : bookService.createUpdateBooks(books, createAuthor)) {
+                results.put(result.getEntity().getIsbn(), result);
+            }
+        });
+        return results;
+    }
+
+    private void applyAlone(PendingWrite write, List<PendingWrite> callers) {
+        try {
+            UpsertResult<BookEntity> result = bookService.upsertBook(
+                    write.isbn(), copyOf(write.isbn(), write.book()), write.createAuthor());
+            callers.forEach(caller -> caller.result().complete(result));
+        } catch (RuntimeException e) {
+            callers.forEach(caller -> caller.result().completeExceptionally(e));
+        }
+    }
+
+    // Every attempt works on a fresh copy, since a failed transaction can leave ids and proxies on the entities.
+    private static BookEntity copyOf(String isbn, BookEntity book) {
+        AuthorEntity author = book.getAuthorEntity();
+        return new BookEntity(isbn, book.getTitle(),
+                author == null ? null : new AuthorEntity(author.getId(), author.getName(), author.getAge(),
+                        author.getVersion()),
+                book.getVersion());
+    }
+}
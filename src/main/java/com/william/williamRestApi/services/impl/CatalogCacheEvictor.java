@@ -0,0 +1,82 @@
+package com.william.williamRestApi.services.impl;
+
+import com.william.williamRestApi.config.CacheConfig;
+import com.william.williamRestApi.domain.entities.AuthorEntity;
+import com.william.williamRestApi.domain.entities.BookEntity;
+import com.william.williamRestApi.reposotories.AuthorRepository;
+import com.william.williamRestApi.reposotories.BookRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Evicts cached books and authors after a write. Cached books embed their author, so evicting an author
+ * also evicts every book that points at it. Inside a transaction the eviction waits for the commit, so a
+ * concurrent read cannot re-cache the old row in between.
+ * <p>
+ * Upserts and patches run as plain SQL that Hibernate does not see, so the matching second-level cache
+ * entries and query cache regions are evicted here too.
+ */
+@Component
+class CatalogCacheEvictor {
+
+    private BookRepository bookRepository;
+    private Cache booksCache;
+    private Cache authorsCache;
+    private org.hibernate.Cache secondLevelCache;
+
+    CatalogCacheEvictor(BookRepository bookRepository, CacheManager cacheManager,
+                        EntityManagerFactory entityManagerFactory) {
+        this.bookRepository = bookRepository;
+        this.booksCache = cacheManager.getCache(CacheConfig.BOOKS_CACHE);
+        this.authorsCache = cacheManager.getCache(CacheConfig.AUTHORS_CACHE);
+        this.secondLevelCache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    void evictBook(String isbn) {
+        TransactionCallbacks.afterCommit(() -> {
+            booksCache.evict(isbn);
+            secondLevelCache.evictEntityData(BookEntity.class, isbn);
+            secondLevelCache.evictQueryRegion(BookRepository.QUERY_CACHE_REGION);
+        });
+    }
+
+    /**
+     * Evicts every cached book and author, for writes too large to track key by key.
+     */
+    void evictAll() {
+        TransactionCallbacks.afterCommit(() -> {
+            booksCache.clear();
+            authorsCache.clear();
+            secondLevelCache.evictEntityData(BookEntity.class);
+            secondLevelCache.evictEntityData(AuthorEntity.class);
+            secondLevelCache.evictQueryRegion(BookRepository.QUERY_CACHE_REGION);
+            secondLevelCache.evictQueryRegion(AuthorRepository.QUERY_CACHE_REGION);
+        });
+    }
+
+    void evictAuthor(Long authorId) {
+        if (authorId != null) {
+            evictAuthors(Set.of(authorId));
+        }
+    }
+
+    void evictAuthors(Collection<Long> authorIds) {
+        if (authorIds.isEmpty()) {
+            return;
+        }
+        List<String> isbns = bookRepository.findIsbnsByAuthorIdIn(authorIds);
+        TransactionCallbacks.afterCommit(() -> {
+            authorIds.forEach(authorsCache::evict);
+            isbns.forEach(booksCache::evict);
+            authorIds.forEach(id -> secondLevelCache.evictEntityData(AuthorEntity.class, id));
+            secondLevelCache.evictQueryRegion(AuthorRepository.QUERY_CACHE_REGION);
+        });
+    }
+}
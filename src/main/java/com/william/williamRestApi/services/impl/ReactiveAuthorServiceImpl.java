@@ -0,0 +1,28 @@
+package com.william.williamRestApi.services.impl;
+
+import com.william.williamRestApi.domain.entities.AuthorEntity;
+import com.william.williamRestApi.reposotories.ReactiveAuthorRepository;
+import com.william.williamRestApi.services.ReactiveAuthorService;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class ReactiveAuthorServiceImpl implements ReactiveAuthorService {
+
+    private ReactiveAuthorRepository reactiveAuthorRepository;
+
+    public ReactiveAuthorServiceImpl(ReactiveAuthorRepository reactiveAuthorRepository) {
+        this.reactiveAuthorRepository = reactiveAuthorRepository;
+    }
+
+    @Override
+    public Flux<AuthorEntity> findAllAfterId(Long id, int limit) {
+        return reactiveAuthorRepository.findAfterId(id, limit);
+    }
+
+    @Override
+    public Mono<AuthorEntity> findOne(Long id) {
+        return reactiveAuthorRepository.findById(id);
+    }
+}
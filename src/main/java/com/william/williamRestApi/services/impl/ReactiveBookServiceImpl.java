@@ -0,0 +1,28 @@
+package com.william.williamRestApi.services.impl;
+
+import com.william.williamRestApi.domain.entities.BookEntity;
+import com.william.williamRestApi.reposotories.ReactiveBookRepository;
+import com.william.williamRestApi.services.ReactiveBookService;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class ReactiveBookServiceImpl implements ReactiveBookService {
+
+    private ReactiveBookRepository reactiveBookRepository;
+
+    public ReactiveBookServiceImpl(ReactiveBookRepository reactiveBookRepository) {
+        this.reactiveBookRepository = reactiveBookRepository;
+    }
+
+    @Override
+    public Flux<BookEntity> findAllAfterIsbn(String isbn, int limit) {
+        return reactiveBookRepository.findAfterIsbn(isbn, limit);
+    }
+
+    @Override
+    public Mono<BookEntity> findOne(String isbn) {
+        return reactiveBookRepository.findById(isbn);
+    }
+}
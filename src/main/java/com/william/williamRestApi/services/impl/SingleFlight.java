@@ -0,0 +1,111 @@
+package com.william.williamRestApi.services.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Lets concurrent loads of the same key share one call. The first caller for a key runs the loader, and callers
+ * arriving while it runs wait for its result instead of running their own. Nobody waits longer than the timeout:
+ * a load older than that stops taking followers, and followers that time out load for themselves, so one stuck
+ * query cannot hold up every reader of a key. Once maxInFlight keys are loading, further keys load directly.
+ */
+final class SingleFlight<K, V> {
+
+    private record Flight<V>(CompletableFuture<V> result, long startedNanos) {
+    }
+
+    private Map<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    private long timeoutNanos;
+    private int maxInFlight;
+    private Counter led;
+    private Counter coalesced;
+    private Counter bypassed;
+    private Counter timedOut;
+
+    SingleFlight(String name, Duration timeout, int maxInFlight, MeterRegistry meterRegistry) {
+        this.timeoutNanos = timeout.toNanos();
+        this.maxInFlight = maxInFlight;
+        this.led = outcomeCounter(meterRegistry, name, "led");
+        this.coalesced = outcomeCounter(meterRegistry, name, "coalesced");
+        this.bypassed = outcomeCounter(meterRegistry, name, "bypassed");
+        this.timedOut = outcomeCounter(meterRegistry, name, "timed-out");
+        Gauge.builder("lookups.single.flight.in.flight", inFlight, Map::size)
+                .description("Keys with a load in progress")
+                .tag("lookup", name)
+                .register(meterRegistry);
+    }
+
+    V load(K key, Supplier<V> loader) {
+        if (inFlight.size() >= maxInFlight) {
+            bypassed.increment();
+            return loader.get();
+        }
+        Flight<V> mine = new Flight<>(new CompletableFuture<>(), System.nanoTime());
+        while (true) {
+            Flight<V> current = inFlight.putIfAbsent(key, mine);
+            if (current == null) {
+                return lead(key, mine, loader);
+            }
+            long waitNanos = timeoutNanos - (System.nanoTime() - current.startedNanos());
+            if (waitNanos > 0) {
+                coalesced.increment();
+                return follow(current, waitNanos, loader);
+            }
+            if (inFlight.replace(key, current, mine)) {
+                return lead(key, mine, loader);
+            }
+        }
+    }
+
+    private V lead(K key, Flight<V> flight, Supplier<V> loader) {
+        led.increment();
+        try {
+            V value = loader.get();
+            flight.result().complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private V follow(Flight<V> flight, long waitNanos, Supplier<V> loader) {
+        try {
+            return flight.result().get(waitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timedOut.increment();
+            return loader.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return loader.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String name, String outcome) {
+        return Counter.builder("lookups.single.flight")
+                .description("Lookups by whether they ran the query, shared another caller's or skipped coalescing")
+                .tag("lookup", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
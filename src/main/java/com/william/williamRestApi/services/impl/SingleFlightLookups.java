@@ -0,0 +1,31 @@
+package com.william.williamRestApi.services.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Creates the {@link SingleFlight} tables for the findOne lookups, configured by app.lookups.single-flight.*.
+ * A max-in-flight of 0 turns coalescing off.
+ */
+@Component
+class SingleFlightLookups {
+
+    private MeterRegistry meterRegistry;
+    private Duration timeout;
+    private int maxInFlight;
+
+    SingleFlightLookups(MeterRegistry meterRegistry,
+                        @Value("${app.lookups.single-flight.timeout:2s}") Duration timeout,
+                        @Value("${app.lookups.single-flight.max-in-flight:10000}") int maxInFlight) {
+        this.meterRegistry = meterRegistry;
+        this.timeout = timeout;
+        this.maxInFlight = maxInFlight;
+    }
+
+    <K, V> SingleFlight<K, V> create(String name) {
+        return new SingleFlight<>(name, timeout, maxInFlight, meterRegistry);
+    }
+}
@@ -0,0 +1,69 @@
+package com.william.williamRestApi;
+
+import com.william.williamRestApi.domain.entities.BookEntity;
+import com.william.williamRestApi.services.BookService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the application the way its main method does with --app.books.import.file.
+ */
+public class BookImportCommandLineTests {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void testThatAnImportFileIsImportedWithoutAWebServerOrSearchIndexAndExitsWithZero() throws Exception {
+        Path file = Files.writeString(directory.resolve("catalog.csv"), """
+                isbn,title,author_name,author_age
+                isbn-1,First,Ann,40
+                """);
+
+        ConfigurableApplicationContext context = start(file);
+        try {
+            assertThat(context).isNotInstanceOf(WebApplicationContext.class);
+            BookEntity book = context.getBean(BookService.class).findOne("isbn-1").orElseThrow();
+            assertThat(book.getTitle()).isEqualTo("First");
+            assertThat(book.getAuthorEntity().getName()).isEqualTo("Ann");
+            // No search index is built after the import, since the process exits instead of serving.
+            assertThat(context.getBean(BookService.class).search("first", 10)).isEmpty();
+        } finally {
+            cleanup(context);
+        }
+        assertThat(SpringApplication.exit(context)).isZero();
+    }
+
+    @Test
+    public void testThatAFailedImportExitsWithOne() throws Exception {
+        Path file = Files.writeString(directory.resolve("catalog.csv"), """
+                isbn,title,author_age
+                isbn-1,First,forty
+                """);
+
+        ConfigurableApplicationContext context = start(file);
+        try {
+            assertThat(context.getBean(BookService.class).findOne("isbn-1")).isEmpty();
+        } finally {
+            cleanup(context);
+        }
+        assertThat(SpringApplication.exit(context)).isEqualTo(1);
+    }
+
+    private static ConfigurableApplicationContext start(Path file) {
+        return SpringApplication.run(WilliamRestApiApplication.class, "--app.books.import.file=" + file);
+    }
+
+    private static void cleanup(ConfigurableApplicationContext context) {
+        context.getBean(JdbcTemplate.class).execute("TRUNCATE TABLE authors, books RESTART IDENTITY CASCADE");
+    }
+}
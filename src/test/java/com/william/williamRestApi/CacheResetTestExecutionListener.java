@@ -0,0 +1,28 @@
+package com.william.williamRestApi;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.TestContext;
+import org.springframework.test.context.TestExecutionListener;
+
+/**
+ * cleanup.sql truncates the tables behind Hibernate's back, so every test starts with empty caches.
+ */
+public class CacheResetTestExecutionListener implements TestExecutionListener {
+
+    @Override
+    public void beforeTestMethod(TestContext testContext) {
+        if (!testContext.hasApplicationContext()) {
+            return;
+        }
+        ApplicationContext context = testContext.getApplicationContext();
+        context.getBeanProvider(EntityManagerFactory.class).ifAvailable(entityManagerFactory -> {
+            org.hibernate.Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+            cache.evictAllRegions();
+        });
+        context.getBeanProvider(CacheManager.class).ifAvailable(cacheManager ->
+                cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear()));
+    }
+}
@@ -0,0 +1,46 @@
+package com.william.williamRestApi;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+public class DataSourceConfigurationTests {
+
+    private DataSource dataSource;
+    private ConnectionFactory connectionFactory;
+    private JdbcTemplate jdbcTemplate;
+    private String url;
+
+    @Autowired
+    public DataSourceConfigurationTests(DataSource dataSource, ConnectionFactory connectionFactory,
+                                        JdbcTemplate jdbcTemplate, @Value("${spring.datasource.url}") String url) {
+        this.dataSource = dataSource;
+        this.connectionFactory = connectionFactory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.url = url;
+    }
+
+    @Test
+    public void testThatTheContextHasBothAJdbcPoolAndAnR2dbcConnectionFactory() throws Exception {
+        assertThat(dataSource.isWrapperFor(HikariDataSource.class)).isTrue();
+        assertThat(connectionFactory).isNotNull();
+    }
+
+    @Test
+    public void testThatTheJdbcPoolConnectsToTheConfiguredDatabase() throws Exception {
+        assertThat(dataSource.unwrap(HikariDataSource.class).getJdbcUrl()).isEqualTo(url);
+        assertThat(jdbcTemplate.queryForObject("SELECT 1", Integer.class)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,60 @@
+package com.william.williamRestApi;
+
+import com.william.williamRestApi.config.RequestSqlStatistics;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * MockMvc result matchers over the SQL statements the request ran.
+ */
+public final class SqlStatementMatchers {
+
+    private SqlStatementMatchers() {
+    }
+
+    public static ResultMatcher statementCount(long expected) {
+        return result -> assertThat(sqlStatistics(result).getStatements())
+                .as("SQL statements").isEqualTo(expected);
+    }
+
+    public static ResultMatcher statementCountAtMost(long max) {
+        return result -> assertThat(sqlStatistics(result).getStatements())
+                .as("SQL statements").isLessThanOrEqualTo(max);
+    }
+
+    /**
+     * Every SQL statement the request ran contains the given text.
+     */
+    public static ResultMatcher allStatementsContain(String sqlFragment) {
+        return result -> assertThat(sqlStatistics(result).getRepeatedStatements(1).keySet())
+                .as("SQL statements").allSatisfy(sql -> assertThat(sql).contains(sqlFragment));
+    }
+
+    /**
+     * The request stayed within the @SqlBudget of its handler.
+     */
+    public static ResultMatcher withinBudget() {
+        return result -> {
+            RequestSqlStatistics statistics = sqlStatistics(result);
+            assertThat(statistics.isOverBudget())
+                    .as("%d SQL statements against a budget of %d", statistics.getStatements(), statistics.getBudget())
+                    .isFalse();
+        };
+    }
+
+    /**
+     * No SQL text ran more than once, the N+1 signature.
+     */
+    public static ResultMatcher noRepeatedStatements() {
+        return result -> assertThat(sqlStatistics(result).getRepeatedStatements(2))
+                .as("repeated SQL statements").isEmpty();
+    }
+
+    public static RequestSqlStatistics sqlStatistics(MvcResult result) {
+        Object statistics = result.getRequest().getAttribute(RequestSqlStatistics.ATTRIBUTE);
+        assertThat(statistics).as("SQL statistics of the request").isInstanceOf(RequestSqlStatistics.class);
+        return (RequestSqlStatistics) statistics;
+    }
+}
@@ -0,0 +1,27 @@
+package com.william.williamRestApi;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.fail;
+
+public final class TestWaits {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private TestWaits() {
+    }
+
+    /**
+     * Polls until the condition holds, for tests that need another thread to reach a known state first.
+     */
+    public static void waitUntil(String description, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Timed out waiting until " + description);
+            }
+            Thread.sleep(10);
+        }
+    }
+}
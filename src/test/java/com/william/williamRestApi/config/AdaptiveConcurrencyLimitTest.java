@@ -0,0 +1,91 @@
+package com.william.williamRestApi.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(20);
+
+    @Test
+    public void testThatTryAcquireStopsAtTheLimitUntilASlotIsReleased() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 2);
+
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+        assertThat(limit.getInFlight()).isEqualTo(2);
+
+        limit.release(FAST, false);
+
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    public void testThatTheLimitGrowsWhileSaturatedAndLatencyIsSteady() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 100);
+
+        for (int i = 0; i < 50; i++) {
+            saturateAndRelease(limit, FAST);
+        }
+
+        assertThat(limit.getLimit()).isGreaterThan(10).isLessThanOrEqualTo(100);
+        assertThat(limit.getInFlight()).isZero();
+    }
+
+    @Test
+    public void testThatTheLimitDoesNotGrowWhenMostSlotsAreUnused() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 100);
+
+        for (int i = 0; i < 50; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+            limit.release(FAST, false);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    public void testThatTheLimitShrinksWhenLatencyRises() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 1, 50);
+        for (int i = 0; i < 20; i++) {
+            saturateAndRelease(limit, FAST);
+        }
+        assertThat(limit.getLimit()).isEqualTo(50);
+
+        for (int i = 0; i < 5; i++) {
+            saturateAndRelease(limit, SLOW);
+        }
+
+        assertThat(limit.getLimit()).isLessThan(50);
+    }
+
+    @Test
+    public void testThatAFailureBacksOffAndTheLimitNeverDropsBelowTheMinimum() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 100);
+
+        assertThat(limit.tryAcquire()).isTrue();
+        limit.release(FAST, true);
+        assertThat(limit.getLimit()).isEqualTo(9);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+            limit.release(FAST, true);
+        }
+        assertThat(limit.getLimit()).isEqualTo(2);
+    }
+
+    private static void saturateAndRelease(AdaptiveConcurrencyLimit limit, long rttNanos) {
+        int acquired = 0;
+        while (limit.tryAcquire()) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limit.release(rttNanos, false);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.william.williamRestApi.config;
+
+import com.william.williamRestApi.config.ConcurrencyLimitFilter.EndpointClass;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrencyLimitFilterTest {
+
+    @Test
+    public void testThatGetsAndHeadsAreReads() {
+        assertThat(classify("GET", "/books/isbn-1")).isEqualTo(EndpointClass.READ);
+        assertThat(classify("GET", "/authors?cursor=")).isEqualTo(EndpointClass.READ);
+        assertThat(classify("GET", "/authors?minAge=30")).isEqualTo(EndpointClass.READ);
+        assertThat(classify("HEAD", "/books/isbn-1")).isEqualTo(EndpointClass.READ);
+    }
+
+    @Test
+    public void testThatSingleResourceChangesAreWrites() {
+        assertThat(classify("PUT", "/books/isbn-1")).isEqualTo(EndpointClass.WRITE);
+        assertThat(classify("PATCH", "/authors/1")).isEqualTo(EndpointClass.WRITE);
+        assertThat(classify("POST", "/authors")).isEqualTo(EndpointClass.WRITE);
+        assertThat(classify("DELETE", "/books/isbn-1")).isEqualTo(EndpointClass.WRITE);
+    }
+
+    @Test
+    public void testThatBatchesImportsExportsAndUnpagedListsAreBulk() {
+        assertThat(classify("PUT", "/books:batch")).isEqualTo(EndpointClass.BULK);
+        assertThat(classify("POST", "/authors:batch")).isEqualTo(EndpointClass.BULK);
+        assertThat(classify("POST", "/books:import")).isEqualTo(EndpointClass.BULK);
+        assertThat(classify("GET", "/books/export")).isEqualTo(EndpointClass.BULK);
+        assertThat(classify("GET", "/authors/export")).isEqualTo(EndpointClass.BULK);
+        assertThat(classify("GET", "/authors")).isEqualTo(EndpointClass.BULK);
+    }
+
+    private static EndpointClass classify(String method, String uri) {
+        return ConcurrencyLimitFilter.classify(MockMvcRequestBuilders.request(HttpMethod.valueOf(method), uri)
+                .buildRequest(new MockServletContext()));
+    }
+}
@@ -0,0 +1,68 @@
+package com.william.williamRestApi.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ConnectionLimitingDataSourceTest {
+
+    private DataSource pool = mock(DataSource.class);
+    private ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(pool, 2, Duration.ofMillis(50));
+
+    @Test
+    public void testThatClosingAConnectionReturnsItsPermitOnce() throws Exception {
+        Connection target = mock(Connection.class);
+        when(pool.getConnection()).thenReturn(target);
+
+        Connection connection = dataSource.getConnection();
+        assertThat(dataSource.availablePermits()).isEqualTo(1);
+
+        connection.close();
+        connection.close();
+        assertThat(dataSource.availablePermits()).isEqualTo(2);
+        verify(target, times(2)).close();
+    }
+
+    @Test
+    public void testThatACallerOverTheLimitTimesOut() throws Exception {
+        when(pool.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        assertThatThrownBy(() -> dataSource.getConnection()).isInstanceOf(SQLTransientConnectionException.class);
+        assertThat(dataSource.availablePermits()).isZero();
+    }
+
+    @Test
+    public void testThatAFailedCheckoutReturnsItsPermit() throws Exception {
+        when(pool.getConnection()).thenThrow(new SQLException("pool closed"));
+
+        assertThatThrownBy(() -> dataSource.getConnection()).hasMessage("pool closed");
+        assertThat(dataSource.availablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    public void testThatCallsAreForwardedToTheTargetConnection() throws Exception {
+        Connection target = mock(Connection.class);
+        when(pool.getConnection()).thenReturn(target);
+        when(target.getAutoCommit()).thenReturn(true);
+
+        Connection connection = dataSource.getConnection();
+
+        assertThat(connection.getAutoCommit()).isTrue();
+        assertThat(((ConnectionProxy) connection).getTargetConnection()).isSameAs(target);
+        assertThat(connection).isEqualTo(connection).isNotEqualTo(target);
+    }
+}
@@ -0,0 +1,65 @@
+package com.william.williamRestApi.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SqlStatisticsDataSourceTest {
+
+    private DataSource pool = mock(DataSource.class);
+    private Connection target = mock(Connection.class);
+    private SqlStatisticsDataSource dataSource = new SqlStatisticsDataSource(pool);
+
+    @AfterEach
+    public void endStatistics() {
+        RequestSqlStatistics.end();
+    }
+
+    @Test
+    public void testThatPreparedAndPlainStatementsAreCounted() throws Exception {
+        PreparedStatement prepared = mock(PreparedStatement.class);
+        Statement plain = mock(Statement.class);
+        when(pool.getConnection()).thenReturn(target);
+        when(target.prepareStatement("SELECT 1")).thenReturn(prepared);
+        when(target.createStatement()).thenReturn(plain);
+        RequestSqlStatistics statistics = RequestSqlStatistics.begin(0, false);
+
+        try (Connection connection = dataSource.getConnection()) {
+            PreparedStatement statement = connection.prepareStatement("SELECT 1");
+            statement.executeQuery();
+            statement.executeQuery();
+            connection.createStatement().execute("UPDATE books SET title = 'x'");
+        }
+
+        assertThat(statistics.getStatements()).isEqualTo(2);
+        assertThat(statistics.getRepeatedStatements(1))
+                .containsOnlyKeys("SELECT 1", "UPDATE books SET title = 'x'");
+        verify(prepared, times(2)).executeQuery();
+        verify(target).close();
+    }
+
+    @Test
+    public void testThatAStatementOverBudgetIsRejectedBeforeItIsPrepared() throws Exception {
+        when(pool.getConnection()).thenReturn(target);
+        RequestSqlStatistics.begin(1, true);
+
+        Connection connection = dataSource.getConnection();
+        connection.prepareStatement("SELECT 1");
+
+        assertThatThrownBy(() -> connection.prepareStatement("SELECT 2"))
+                .isInstanceOf(SqlBudgetExceededException.class);
+        verify(target, never()).prepareStatement("SELECT 2");
+    }
+}
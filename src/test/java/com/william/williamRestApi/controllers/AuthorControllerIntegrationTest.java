@@ -1,7 +1,9 @@
 package com.william.williamRestApi.controllers;
 
+import com.william.williamRestApi.SqlStatementMatchers;
 import com.william.williamRestApi.TestDataUtil;
 import com.william.williamRestApi.domain.dto.AuthorDto;
+import com.william.williamRestApi.domain.dto.BookDto;
 import com.william.williamRestApi.domain.entities.AuthorEntity;
 import com.william.williamRestApi.services.AuthorService;
 import org.junit.jupiter.api.Test;
@@ -17,6 +19,8 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import tools.jackson.databind.ObjectMapper;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
@@ -279,4 +283,222 @@ public class AuthorControllerIntegrationTest {
         ).andExpect(MockMvcResultMatchers.status().isNoContent());
 
     }
+
+    @Test
+    public void testThatBatchCreateAuthorsReturnsStatusPerAuthor() throws Exception {
+        AuthorEntity testAuthorEntityA = TestDataUtil.createTestAuthorA();
+        testAuthorEntityA.setId(null);
+        AuthorEntity savedAuthor = authorService.saveAuthor(testAuthorEntityA);
+
+        AuthorDto updatedAuthor = TestDataUtil.createTestAuthorDtoA();
+        updatedAuthor.setId(savedAuthor.getId());
+        updatedAuthor.setName("UPDATED");
+        AuthorDto newAuthor = TestDataUtil.createTestAuthorDtoA();
+        newAuthor.setId(null);
+        String batchJson = objectMapper.writeValueAsString(List.of(updatedAuthor, newAuthor));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/authors:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batchJson)
+
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].status").value(200)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].item.name").value("UPDATED")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[1].status").value(201)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[1].item.id").isNumber()
+        );
+    }
+
+    @Test
+    public void testThatGetAuthorWithEmbeddedBooksReturnsAuthorBooks() throws Exception {
+        AuthorEntity testAuthorEntityA = TestDataUtil.createTestAuthorA();
+        testAuthorEntityA.setId(null);
+        AuthorEntity savedAuthor = authorService.saveAuthor(testAuthorEntityA);
+
+        AuthorDto authorDto = TestDataUtil.createTestAuthorDtoA();
+        authorDto.setId(savedAuthor.getId());
+        BookDto bookDto = TestDataUtil.createTestBookDtoA(authorDto);
+        mockMvc.perform(
+                MockMvcRequestBuilders.put("/books/" + bookDto.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookDto))
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/authors/" + savedAuthor.getId() + "?embed=books")
+                        .contentType(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.books[0].isbn").value(bookDto.getIsbn())
+        ).andExpect(
+                SqlStatementMatchers.withinBudget()
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/authors/" + savedAuthor.getId() + "/books")
+                        .contentType(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].title").value(bookDto.getTitle())
+        );
+    }
+
+    @Test
+    public void testThatAnUnknownEmbedReturnsHttpStatus400BadRequest() throws Exception {
+        AuthorEntity testAuthorEntityA = TestDataUtil.createTestAuthorA();
+        AuthorEntity savedAuthor = authorService.saveAuthor(testAuthorEntityA);
+
+        for (String uri : List.of("/authors/" + savedAuthor.getId() + "?embed=book", "/authors?embed=book",
+                "/authors?cursor=&embed=book")) {
+            mockMvc.perform(
+                    MockMvcRequestBuilders.get(uri)
+                            .contentType(MediaType.APPLICATION_JSON)
+
+            ).andExpect(
+                    MockMvcResultMatchers.status().isBadRequest()
+            );
+        }
+    }
+
+    @Test
+    public void testThatListAuthorsByAgeRangeWalksMatchingAuthors() throws Exception {
+        for (int age : new int[]{15, 25, 30, 30, 45}) {
+            AuthorEntity author = TestDataUtil.createTestAuthorA();
+            author.setId(null);
+            author.setAge(age);
+            authorService.saveAuthor(author);
+        }
+
+        String firstPage = mockMvc.perform(
+                MockMvcRequestBuilders.get("/authors?minAge=20&maxAge=40&size=2")
+                        .contentType(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[0].age").value(25)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[1].age").value(30)
+        ).andReturn().getResponse().getContentAsString();
+        String nextCursor = objectMapper.readTree(firstPage).get("nextCursor").asString();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/authors?minAge=20&maxAge=40&size=2&cursor=" + nextCursor)
+                        .contentType(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content.length()").value(1)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[0].age").value(30)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.nextCursor").doesNotExist()
+        );
+    }
+
+    @Test
+    public void testThatListAuthorsByCursorCapsAMaximalSize() throws Exception {
+        AuthorEntity author = TestDataUtil.createTestAuthorA();
+        author.setId(null);
+        authorService.saveAuthor(author);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/authors?cursor=&size=" + Integer.MAX_VALUE)
+                        .contentType(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content.length()").value(1)
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/authors?minAge=0&size=" + Integer.MAX_VALUE)
+                        .contentType(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content.length()").value(1)
+        );
+    }
+
+    @Test
+    public void testThatAgeHistogramCountsAuthorsPerBucket() throws Exception {
+        for (int age : new int[]{12, 18, 25}) {
+            AuthorEntity author = TestDataUtil.createTestAuthorA();
+            author.setId(null);
+            author.setAge(age);
+            authorService.saveAuthor(author);
+        }
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/authors/age-histogram?bucketSize=10")
+                        .contentType(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].minAge").value(10)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].count").value(2)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].averageAge").value(15.0)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[1].minAge").value(20)
+        );
+    }
+
+    @Test
+    public void testThatAgeHistogramClampsTheLastBucketToTheLargestAge() throws Exception {
+        AuthorEntity author = TestDataUtil.createTestAuthorA();
+        author.setId(null);
+        author.setAge(Integer.MAX_VALUE - 1);
+        authorService.saveAuthor(author);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/authors/age-histogram?bucketSize=10")
+                        .contentType(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].minAge").value(Integer.MAX_VALUE - 7)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].maxAge").value(Integer.MAX_VALUE)
+        );
+    }
+
+    @Test
+    public void testThatListAuthorsWithEmbeddedBooksDoesNotQueryPerAuthor() throws Exception {
+        for (AuthorEntity author : List.of(TestDataUtil.createTestAuthorA(), TestDataUtil.createTestAuthorB(),
+                TestDataUtil.createTestAuthorC())) {
+            author.setId(null);
+            AuthorEntity savedAuthor = authorService.saveAuthor(author);
+            AuthorDto authorDto = TestDataUtil.createTestAuthorDtoA();
+            authorDto.setId(savedAuthor.getId());
+            BookDto bookDto = TestDataUtil.createTestBookDtoA(authorDto);
+            bookDto.setIsbn("isbn-" + savedAuthor.getId());
+            mockMvc.perform(
+                    MockMvcRequestBuilders.put("/books/" + bookDto.getIsbn())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(bookDto))
+            ).andExpect(
+                    MockMvcResultMatchers.status().isCreated()
+            );
+        }
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/authors?cursor=&size=10&embed=books")
+                        .contentType(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content.length()").value(3)
+        ).andExpect(
+                SqlStatementMatchers.withinBudget()
+        ).andExpect(
+                SqlStatementMatchers.noRepeatedStatements()
+        );
+    }
 }
@@ -1,22 +1,53 @@
 package com.william.williamRestApi.controllers;
 
+import com.william.williamRestApi.SqlStatementMatchers;
 import com.william.williamRestApi.TestDataUtil;
 import com.william.williamRestApi.domain.dto.BookDto;
+import com.william.williamRestApi.domain.entities.AuthorEntity;
 import com.william.williamRestApi.domain.entities.BookEntity;
+import com.william.williamRestApi.reposotories.BookRepository;
 import com.william.williamRestApi.services.BookService;
+import io.micrometer.core.instrument.DistributionSummary;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.stubbing.Answer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import tools.jackson.databind.ObjectMapper;
 
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.william.williamRestApi.TestWaits.waitUntil;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
 @SpringBootTest
 @ExtendWith(SpringExtension.class)
 //@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
@@ -30,12 +61,26 @@ public class BookControllerIntegrationTest {
     private MockMvc mockMvc;
     private ObjectMapper objectMapper;
     private BookService bookService;
+    private EntityManagerFactory entityManagerFactory;
+    private MeterRegistry meterRegistry;
+    private DataSource dataSource;
+    private EntityManager entityManager;
+
+    @MockitoSpyBean
+    private BookRepository bookRepository;
 
     @Autowired
-    public BookControllerIntegrationTest(MockMvc mockMvc, ObjectMapper objectMapper,BookService bookService) {
+    public BookControllerIntegrationTest(MockMvc mockMvc, ObjectMapper objectMapper,BookService bookService,
+                                         EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry,
+                                         DataSource dataSource,
+                                         EntityManager entityManager) {
         this.mockMvc = mockMvc;
         this.objectMapper = objectMapper;
         this.bookService = bookService;
+        this.entityManagerFactory = entityManagerFactory;
+        this.meterRegistry = meterRegistry;
+        this.dataSource = dataSource;
+        this.entityManager = entityManager;
 
     }
 
@@ -101,6 +146,83 @@ public class BookControllerIntegrationTest {
                 MockMvcResultMatchers.jsonPath("$.content[0].title").value(testBookEntity.getTitle()));
     }
 
+    @Test
+    public void testThatListBooksDefaultsToThePageWithExactTotals() throws Exception {
+        bookService.createUpdateBook("isbn-1", TestDataUtil.createTestBookA(null));
+        bookService.createUpdateBook("isbn-2", TestDataUtil.createTestBookB(null));
+        bookService.createUpdateBook("isbn-3", TestDataUtil.createTestBookC(null));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books?size=2&page=1&sort=isbn")
+                        .contentType(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[0].isbn").value("isbn-3")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.totalElements").value(3)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.totalPages").value(2)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.number").value(1)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.hasNext").doesNotExist()
+        );
+    }
+
+    @Test
+    public void testThatListBooksReportsHasNextWithoutATotal() throws Exception {
+        bookService.createUpdateBook("isbn-1", TestDataUtil.createTestBookA(null));
+        bookService.createUpdateBook("isbn-2", TestDataUtil.createTestBookB(null));
+        bookService.createUpdateBook("isbn-3", TestDataUtil.createTestBookC(null));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books?total=none&size=2&sort=isbn")
+                        .contentType(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content.length()").value(2)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.hasNext").value(true)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.approximateTotal").doesNotExist()
+        ).andExpect(
+                SqlStatementMatchers.statementCount(1)
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books?total=none&size=2&page=1&sort=isbn")
+                        .contentType(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[0].isbn").value("isbn-3")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.hasNext").value(false)
+        );
+    }
+
+    @Test
+    public void testThatListBooksReturnsApproximateTotalOnRequest() throws Exception {
+        bookService.createUpdateBook("isbn-1", TestDataUtil.createTestBookA(null));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books?total=approximate")
+                        .contentType(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.approximateTotal").isNumber()
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books?total=exact&size=2")
+                        .contentType(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+    }
+
     @Test
     public void testThatGetBooksReturnsHttpStatus200Ok() throws Exception {
 
@@ -128,6 +250,42 @@ public class BookControllerIntegrationTest {
         );
     }
 
+    @Test
+    public void testThatConcurrentGetsOfOneBookAreCoalesced() throws Exception {
+        bookService.createUpdateBook("isbn-1", TestDataUtil.createTestBookA(null));
+        double coalescedBefore = singleFlightCount("coalesced");
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Repository spies delegate to the real repository through their default answer.
+        Answer<?> load = mockingDetails(bookRepository).getMockCreationSettings().getDefaultAnswer();
+        doAnswer(invocation -> {
+            loading.countDown();
+            assertThat(release.await(5, TimeUnit.SECONDS)).isTrue();
+            return load.answer(invocation);
+        }).when(bookRepository).findById("isbn-1");
+        HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<Integer>> responses = new ArrayList<>();
+            responses.add(executor.submit(() -> getStatus("/books/isbn-1")));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 1; i < 8; i++) {
+                responses.add(executor.submit(() -> getStatus("/books/isbn-1")));
+            }
+            waitUntil("the other gets wait for the first", () -> singleFlightCount("coalesced") - coalescedBefore == 7);
+            // Neither the loading caller, still before its query, nor the waiting ones hold a connection.
+            assertThat(pool.getHikariPoolMXBean().getActiveConnections()).isZero();
+
+            release.countDown();
+            for (Future<Integer> response : responses) {
+                assertThat(response.get()).isEqualTo(200);
+            }
+        }
+
+        verify(bookRepository, times(1)).findById("isbn-1");
+        assertThat(singleFlightCount("coalesced") - coalescedBefore).isEqualTo(7);
+    }
+
     @Test
     public void testThatBooksReturnsBookWhenItExists() throws Exception {
 
@@ -236,6 +394,28 @@ public class BookControllerIntegrationTest {
         );
     }
 
+    @Test
+    public void testThatPartialUpdateBookCountsItsPlainSqlStatement() throws Exception {
+        BookEntity bookEntityA = TestDataUtil.createTestBookA(null);
+        bookService.createUpdateBook(bookEntityA.getIsbn(), bookEntityA);
+
+        BookDto bookDto = TestDataUtil.createTestBookDtoA(null);
+        bookDto.setTitle("UPDATED");
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/books/" + bookEntityA.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookDto))
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                SqlStatementMatchers.statementCount(1)
+        ).andExpect(
+                SqlStatementMatchers.allStatementsContain("UPDATE books")
+        );
+    }
+
     @Test
     public void testThatDeleteBookRequestReturnsHttpStatus204NonExistingBook() throws Exception {
         mockMvc.perform(
@@ -265,4 +445,644 @@ public class BookControllerIntegrationTest {
         );
     }
 
+    @Test
+    public void testThatBatchCreateUpdateBooksReturnsStatusPerBook() throws Exception {
+        BookEntity bookEntityA = TestDataUtil.createTestBookA(null);
+        bookService.createUpdateBook(bookEntityA.getIsbn(), bookEntityA);
+
+        BookDto updatedBookDto = TestDataUtil.createTestBookDtoA(null);
+        updatedBookDto.setTitle("UPDATED");
+        BookDto newBookDto = TestDataUtil.createTestBookDtoA(TestDataUtil.createTestAuthorDtoA());
+        newBookDto.setIsbn("12345-6789-0");
+        newBookDto.getAuthorDto().setId(null);
+        String batchJson = objectMapper.writeValueAsString(List.of(updatedBookDto, newBookDto));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.put("/books:batch?createAuthor=true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batchJson)
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].status").value(200)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].item.title").value("UPDATED")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[1].status").value(201)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[1].item.authorDto.id").isNumber()
+        );
+    }
+
+    @Test
+    public void testThatBatchLinkingAuthorsByIdWritesInOneStatementWithoutLoadingAuthors() throws Exception {
+        List<String> authorNames = List.of("Alpha", "Bravo", "Charlie");
+        List<BookDto> bookDtos = new ArrayList<>();
+        for (int i = 0; i < authorNames.size(); i++) {
+            AuthorEntity author = TestDataUtil.createTestAuthorA();
+            author.setId(null);
+            author.setName(authorNames.get(i));
+            Long authorId = bookService.createUpdateBook("isbn-" + i, TestDataUtil.createTestBookA(author))
+                    .getAuthorEntity().getId();
+            BookDto bookDto = TestDataUtil.createTestBookDtoA(TestDataUtil.createTestAuthorDtoA());
+            bookDto.setIsbn(i == 0 ? "isbn-0" : "isbn-new-" + i);
+            bookDto.getAuthorDto().setId(authorId);
+            bookDto.getAuthorDto().setName("IGNORED");
+            bookDtos.add(bookDto);
+        }
+        String batchJson = objectMapper.writeValueAsString(bookDtos);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.put("/books:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batchJson)
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].status").value(200)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[1].status").value(201)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[2].item.authorDto.name").value("Charlie")
+        ).andExpect(
+                SqlStatementMatchers.statementCount(1)
+        ).andExpect(
+                SqlStatementMatchers.allStatementsContain("INSERT INTO books")
+        );
+
+        assertThat(bookService.search("Bravo", 10))
+                .extracting(BookEntity::getIsbn).contains("isbn-new-1");
+    }
+
+    @Test
+    public void testThatExportDetachesEachBookAndItsAuthor() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            AuthorEntity author = TestDataUtil.createTestAuthorA();
+            author.setId(null);
+            author.setName("Author " + i);
+            BookEntity book = TestDataUtil.createTestBookA(author);
+            book.setIsbn("isbn-" + i);
+            bookService.createUpdateBook(book.getIsbn(), book);
+        }
+
+        List<Integer> managedEntityCounts = new ArrayList<>();
+        bookService.exportAll(book -> managedEntityCounts.add(
+                entityManager.unwrap(Session.class).getStatistics().getEntityCount()));
+
+        // Only the current book and its author are ever managed.
+        assertThat(managedEntityCounts).hasSize(5).allSatisfy(count -> assertThat(count).isLessThanOrEqualTo(2));
+    }
+
+    @Test
+    public void testThatListBooksStatementCountDoesNotGrowWithPageSize() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            AuthorEntity author = TestDataUtil.createTestAuthorA();
+            author.setId(null);
+            author.setName("Author " + i);
+            BookEntity book = TestDataUtil.createTestBookA(author);
+            book.setIsbn("isbn-" + i);
+            bookService.createUpdateBook(book.getIsbn(), book);
+        }
+
+        long smallPageStatements = countStatementsForBookPage(2);
+        long largePageStatements = countStatementsForBookPage(20);
+
+        assertThat(largePageStatements).isEqualTo(smallPageStatements);
+    }
+
+    @Test
+    public void testThatListBooksWithManyAuthorsStaysWithinSqlBudget() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            AuthorEntity author = TestDataUtil.createTestAuthorA();
+            author.setId(null);
+            author.setName("Author " + i);
+            BookEntity book = TestDataUtil.createTestBookA(author);
+            book.setIsbn("isbn-" + i);
+            bookService.createUpdateBook(book.getIsbn(), book);
+        }
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books?size=10")
+                        .contentType(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                SqlStatementMatchers.withinBudget()
+        ).andExpect(
+                SqlStatementMatchers.noRepeatedStatements()
+        );
+    }
+
+    @Test
+    public void testThatListBooksRecordsSqlStatementsForTheRequest() throws Exception {
+        bookService.createUpdateBook("isbn-1", TestDataUtil.createTestBookA(null));
+        DistributionSummary statements = meterRegistry.summary(
+                "http.server.requests.sql.statements", "method", "GET", "uri", "/books");
+        long requestsBefore = statements.count();
+        double statementsBefore = statements.totalAmount();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books?size=5")
+                        .contentType(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        );
+
+        assertThat(statements.count()).isEqualTo(requestsBefore + 1);
+        assertThat(statements.totalAmount()).isGreaterThan(statementsBefore);
+    }
+
+    @Test
+    public void testThatMappingABookTimesItsEmbeddedAuthorOnlyOnce() throws Exception {
+        AuthorEntity author = TestDataUtil.createTestAuthorA();
+        author.setId(null);
+        bookService.createUpdateBook("isbn-1", TestDataUtil.createTestBookA(author));
+        Timer bookTimer = meterRegistry.get("mapper.map").tag("mapper", "book").tag("direction", "to").timer();
+        Timer authorTimer = meterRegistry.get("mapper.map").tag("mapper", "author").tag("direction", "to").timer();
+        long booksBefore = bookTimer.count();
+        long authorsBefore = authorTimer.count();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/isbn-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.authorDto.name").value(author.getName())
+        );
+
+        assertThat(bookTimer.count()).isEqualTo(booksBefore + 1);
+        assertThat(authorTimer.count()).isEqualTo(authorsBefore);
+    }
+
+    @Test
+    public void testThatRepeatedBookPageIsServedFromTheQueryCache() throws Exception {
+        bookService.createUpdateBook("isbn-1", TestDataUtil.createTestBookA(null));
+        bookService.createUpdateBook("isbn-2", TestDataUtil.createTestBookB(null));
+        bookService.createUpdateBook("isbn-3", TestDataUtil.createTestBookC(null));
+
+        assertThat(countStatementsForBookPage(2)).isPositive();
+        assertThat(countStatementsForBookPage(2)).isZero();
+
+        bookService.createUpdateBook("isbn-4", TestDataUtil.createTestBookA(null));
+
+        assertThat(countStatementsForBookPage(2)).isPositive();
+    }
+
+    @Test
+    public void testThatListBooksByCursorWalksAllBooks() throws Exception {
+        bookService.createUpdateBook("isbn-1", TestDataUtil.createTestBookA(null));
+        bookService.createUpdateBook("isbn-2", TestDataUtil.createTestBookB(null));
+        bookService.createUpdateBook("isbn-3", TestDataUtil.createTestBookC(null));
+
+        MvcResult firstPage = mockMvc.perform(
+                MockMvcRequestBuilders.get("/books?cursor=&size=2")
+                        .contentType(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content.length()").value(2)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[0].isbn").value("isbn-1")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.nextCursor").isString()
+        ).andReturn();
+
+        String nextCursor = objectMapper.readTree(firstPage.getResponse().getContentAsString())
+                .get("nextCursor").asString();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books?size=2&cursor=" + nextCursor)
+                        .contentType(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content.length()").value(1)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content[0].isbn").value("isbn-3")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.nextCursor").isEmpty()
+        );
+    }
+
+    @Test
+    public void testThatListBooksByCursorCapsAMaximalSize() throws Exception {
+        bookService.createUpdateBook("isbn-1", TestDataUtil.createTestBookA(null));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books?cursor=&size=" + Integer.MAX_VALUE)
+                        .contentType(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.content.length()").value(1)
+        );
+    }
+
+    @Test
+    public void testThatListBooksByCursorRejectsADescendingSort() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books?cursor=&sort=title,desc")
+                        .contentType(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+    }
+
+    @Test
+    public void testThatExportBooksStreamsOneJsonLinePerBook() throws Exception {
+        bookService.createUpdateBook("isbn-1", TestDataUtil.createTestBookA(null));
+        bookService.createUpdateBook("isbn-2", TestDataUtil.createTestBookB(null));
+
+        MvcResult exportResult = mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/export")
+
+        ).andExpect(
+                MockMvcResultMatchers.request().asyncStarted()
+        ).andReturn();
+
+        MvcResult dispatchedResult = mockMvc.perform(
+                MockMvcRequestBuilders.asyncDispatch(exportResult)
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_NDJSON)
+        ).andReturn();
+
+        String[] lines = dispatchedResult.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines).anySatisfy(line ->
+                assertThat(objectMapper.readTree(line).get("isbn").asString()).isEqualTo("isbn-1"));
+    }
+
+    @Test
+    public void testThatAuthorUpdateEvictsCachedBooks() throws Exception {
+        AuthorEntity author = TestDataUtil.createTestAuthorA();
+        author.setId(null);
+        BookEntity savedBook = bookService.createUpdateBook("isbn-1", TestDataUtil.createTestBookA(author));
+        Long authorId = savedBook.getAuthorEntity().getId();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/isbn-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.authorDto.name").value(author.getName())
+        );
+
+        AuthorEntity updatedAuthor = TestDataUtil.createTestAuthorB();
+        updatedAuthor.setId(authorId);
+        mockMvc.perform(
+                MockMvcRequestBuilders.put("/authors/" + authorId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updatedAuthor))
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/isbn-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.authorDto.name").value(updatedAuthor.getName())
+        );
+    }
+
+    @Test
+    public void testThatGetBookWithMatchingIfNoneMatchReturnsHttpStatus304() throws Exception {
+        BookEntity testBookEntity = TestDataUtil.createTestBookA(null);
+        bookService.createUpdateBook(testBookEntity.getIsbn(), testBookEntity);
+
+        String eTag = mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/" + testBookEntity.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.header().exists("ETag")
+        ).andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/" + testBookEntity.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-None-Match", eTag)
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotModified()
+        );
+    }
+
+    @Test
+    public void testThatUpdateBookWithStaleIfMatchReturnsHttpStatus412() throws Exception {
+        BookEntity testBookEntity = TestDataUtil.createTestBookA(null);
+        bookService.createUpdateBook(testBookEntity.getIsbn(), testBookEntity);
+
+        BookDto bookDto = TestDataUtil.createTestBookDtoA(null);
+        bookDto.setTitle("UPDATED");
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/books/" + testBookEntity.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-Match", "\"99\"")
+                        .content(objectMapper.writeValueAsString(bookDto))
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isPreconditionFailed()
+        );
+    }
+
+    @Test
+    public void testThatPartialUpdateNonExistingBookReturnsHttpStatus404() throws Exception {
+        BookDto bookDto = TestDataUtil.createTestBookDtoA(null);
+        bookDto.setTitle("UPDATED");
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/books/" + bookDto.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookDto))
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotFound()
+        );
+    }
+
+    @Test
+    public void testThatNoOpPartialUpdateKeepsBookVersion() throws Exception {
+        BookEntity testBookEntity = TestDataUtil.createTestBookA(null);
+        BookEntity savedBook = bookService.createUpdateBook(testBookEntity.getIsbn(), testBookEntity);
+
+        BookDto bookDto = TestDataUtil.createTestBookDtoA(null);
+        bookDto.setTitle(savedBook.getTitle());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch("/books/" + testBookEntity.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-Match", "\"" + savedBook.getVersion() + "\"")
+                        .content(objectMapper.writeValueAsString(bookDto))
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.header().string("ETag", ETags.of(savedBook))
+        );
+    }
+
+    @Test
+    public void testThatCreateBookLinkingAuthorByIdDoesNotLoadOrWriteTheAuthor() throws Exception {
+        AuthorEntity author = TestDataUtil.createTestAuthorA();
+        author.setId(null);
+        Long authorId = bookService.createUpdateBook("isbn-1", TestDataUtil.createTestBookA(author))
+                .getAuthorEntity().getId();
+
+        BookDto bookDto = TestDataUtil.createTestBookDtoA(TestDataUtil.createTestAuthorDtoA());
+        bookDto.getAuthorDto().setId(authorId);
+        bookDto.getAuthorDto().setName("IGNORED");
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.put("/books/" + bookDto.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookDto))
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isCreated()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.authorDto.name").value(author.getName())
+        ).andExpect(
+                // Only the upsert itself, which reads the author back in the same statement.
+                SqlStatementMatchers.statementCount(1)
+        ).andExpect(
+                SqlStatementMatchers.allStatementsContain("INSERT INTO books")
+        );
+    }
+
+    @Test
+    public void testThatCreateBookWithNewAuthorRequiresCreateAuthor() throws Exception {
+        BookDto bookDto = TestDataUtil.createTestBookDtoA(TestDataUtil.createTestAuthorDtoA());
+        bookDto.getAuthorDto().setId(null);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.put("/books/" + bookDto.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookDto))
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.put("/books/" + bookDto.getIsbn() + "?createAuthor=true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookDto))
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isCreated()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.authorDto.id").isNumber()
+        );
+    }
+
+    @Test
+    public void testThatSearchBooksRanksTitlePrefixMatches() throws Exception {
+        BookEntity dragonBook = TestDataUtil.createTestBookA(null);
+        dragonBook.setTitle("Zephyrine Dragons of Autumn");
+        bookService.createUpdateBook("isbn-1", dragonBook);
+        BookEntity otherBook = TestDataUtil.createTestBookB(null);
+        otherBook.setTitle("Zephyrine Gardens");
+        bookService.createUpdateBook("isbn-2", otherBook);
+        AuthorEntity zephyrAuthor = TestDataUtil.createTestAuthorB();
+        zephyrAuthor.setId(null);
+        zephyrAuthor.setName("Zephyrina Okafor");
+        bookService.createUpdateBook("isbn-3", TestDataUtil.createTestBookC(zephyrAuthor));
+
+        // isbn-3 only has an author prefix match and was indexed last, which would win a tie.
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/search")
+                        .param("q", "zephyr")
+                        .contentType(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.length()").value(3)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[2].isbn").value("isbn-3")
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/search")
+                        .param("q", "zephyr drag")
+                        .contentType(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.length()").value(1)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].isbn").value("isbn-1")
+        );
+
+        bookService.delete("isbn-1");
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/search")
+                        .param("q", "zephyr drag")
+                        .contentType(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.length()").value(0)
+        );
+    }
+
+    private long countStatementsForBookPage(int pageSize) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books?total=none&size=" + pageSize)
+                        .contentType(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        );
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    public void testThatImportCsvMergesBooksAndDedupesAuthors() throws Exception {
+        String csv = """
+                isbn,title,author_name,author_age
+                isbn-1,"First, with a comma",Ann,40
+                isbn-2,Second,Ann,40
+                isbn-1,First again,Bob,
+                """;
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/books:import")
+                        .contentType("text/csv")
+                        .content(csv)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.rows").value(3)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.authorsCreated").value(2)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.booksInserted").value(2)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.booksUpdated").value(0)
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/isbn-1")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.title").value("First again")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.authorDto.name").value("Bob")
+        );
+        assertThat(bookService.findOne("isbn-2").orElseThrow().getAuthorEntity().getName()).isEqualTo("Ann");
+    }
+
+    @Test
+    public void testThatImportNdjsonUpdatesExistingBooksAndReusesAuthors() throws Exception {
+        bookService.createUpdateBook("isbn-1", TestDataUtil.createTestBookA(TestDataUtil.createTestAuthorA()));
+        AuthorEntity author = bookService.findOne("isbn-1").orElseThrow().getAuthorEntity();
+        String ndjson = """
+                {"isbn":"isbn-1","title":"Renamed","authorDto":{"name":"%s","age":%d}}
+                {"isbn":"isbn-2","title":"New","authorDto":{"id":%d}}
+                """.formatted(author.getName(), author.getAge(), author.getId());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/books:import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.authorsCreated").value(0)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.booksInserted").value(1)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.booksUpdated").value(1)
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/search").param("q", "Renamed")
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].isbn").value("isbn-1")
+        );
+    }
+
+    @Test
+    public void testThatImportWithAMalformedRowReturns400AndImportsNothing() throws Exception {
+        String csv = """
+                isbn,title,author_age
+                isbn-1,First,40
+                isbn-2,Second,forty
+                """;
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/books:import")
+                        .contentType("text/csv")
+                        .content(csv)
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+        assertThat(bookService.findOne("isbn-1")).isEmpty();
+    }
+
+    @Test
+    public void testThatImportCsvWithoutAColumnKeepsItOnExistingBooks() throws Exception {
+        bookService.createUpdateBook("isbn-1", TestDataUtil.createTestBookA(TestDataUtil.createTestAuthorA()));
+        AuthorEntity author = bookService.findOne("isbn-1").orElseThrow().getAuthorEntity();
+        String titlesOnly = """
+                isbn,title
+                isbn-1,Renamed
+                isbn-2,New
+                """;
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/books:import")
+                        .contentType("text/csv")
+                        .content(titlesOnly)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.booksInserted").value(1)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.booksUpdated").value(1)
+        );
+
+        BookEntity renamed = bookService.findOne("isbn-1").orElseThrow();
+        assertThat(renamed.getTitle()).isEqualTo("Renamed");
+        assertThat(renamed.getAuthorEntity().getId()).isEqualTo(author.getId());
+        assertThat(bookService.findOne("isbn-2").orElseThrow().getAuthorEntity()).isNull();
+
+        String authorsOnly = """
+                isbn,author_id
+                isbn-2,%d
+                """.formatted(author.getId());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/books:import")
+                        .contentType("text/csv")
+                        .content(authorsOnly)
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.booksUpdated").value(1)
+        );
+
+        BookEntity reassigned = bookService.findOne("isbn-2").orElseThrow();
+        assertThat(reassigned.getTitle()).isEqualTo("New");
+        assertThat(reassigned.getAuthorEntity().getId()).isEqualTo(author.getId());
+    }
+
+    private int getStatus(String path) throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.get(path)).andReturn().getResponse().getStatus();
+    }
+
+    private double singleFlightCount(String outcome) {
+        return meterRegistry.get("lookups.single.flight").tag("lookup", "book").tag("outcome", outcome).counter().count();
+    }
 }
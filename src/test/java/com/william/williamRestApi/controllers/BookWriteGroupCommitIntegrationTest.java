@@ -0,0 +1,144 @@
+package com.william.williamRestApi.controllers;
+
+import com.william.williamRestApi.TestDataUtil;
+import com.william.williamRestApi.domain.dto.BookDto;
+import com.william.williamRestApi.services.BookService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "app.book-writes.group-commit.enabled=true",
+        "app.book-writes.group-commit.max-delay=200ms"
+})
+@ExtendWith(SpringExtension.class)
+@Sql(
+        scripts = "/cleanup.sql",
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD
+)
+@AutoConfigureMockMvc
+public class BookWriteGroupCommitIntegrationTest {
+
+    private static final long STAGGER_MILLIS = 30;
+
+    private MockMvc mockMvc;
+    private ObjectMapper objectMapper;
+    private BookService bookService;
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    public BookWriteGroupCommitIntegrationTest(MockMvc mockMvc, ObjectMapper objectMapper, BookService bookService,
+                                               MeterRegistry meterRegistry) {
+        this.mockMvc = mockMvc;
+        this.objectMapper = objectMapper;
+        this.bookService = bookService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Test
+    public void testThatConcurrentBookWritesAreCommittedTogether() throws Exception {
+        List<Integer> statuses = statuses(putConcurrently(10, i -> "isbn-" + i, i -> "Title " + i, null, 0));
+
+        assertThat(statuses).containsOnly(201);
+        for (int i = 0; i < 10; i++) {
+            assertThat(bookService.findOne("isbn-" + i).orElseThrow().getTitle()).isEqualTo("Title " + i);
+        }
+        DistributionSummary batchSizes = meterRegistry.get("books.write.batch.size").summary();
+        assertThat(batchSizes.max()).isGreaterThan(1);
+    }
+
+    @Test
+    public void testThatWritesToTheSameBookInOneBatchAllGetTheLastWrite() throws Exception {
+        BookDto bookDto = TestDataUtil.createTestBookDtoA(null);
+        mockMvc.perform(
+                MockMvcRequestBuilders.put("/books/" + bookDto.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookDto))
+        ).andExpect(
+                MockMvcResultMatchers.status().isCreated()
+        );
+
+        List<MockHttpServletResponse> responses = putConcurrently(5, i -> bookDto.getIsbn(), i -> "Title " + i,
+                null, STAGGER_MILLIS);
+
+        assertThat(statuses(responses)).containsOnly(200);
+        for (MockHttpServletResponse response : responses) {
+            assertThat(objectMapper.readTree(response.getContentAsString()).get("title").asString())
+                    .isEqualTo("Title 4");
+        }
+        assertThat(bookService.findOne(bookDto.getIsbn()).orElseThrow().getTitle()).isEqualTo("Title 4");
+    }
+
+    @Test
+    public void testThatAConditionalWriteOvertakenInTheSameBatchFailsItsPrecondition() throws Exception {
+        BookDto bookDto = TestDataUtil.createTestBookDtoA(null);
+        String eTag = mockMvc.perform(
+                MockMvcRequestBuilders.put("/books/" + bookDto.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookDto))
+        ).andExpect(
+                MockMvcResultMatchers.status().isCreated()
+        ).andReturn().getResponse().getHeader("ETag");
+
+        List<Integer> statuses = statuses(putConcurrently(3, i -> bookDto.getIsbn(), i -> "Title " + i,
+                eTag, STAGGER_MILLIS));
+
+        assertThat(statuses).containsExactly(200, 412, 412);
+        assertThat(bookService.findOne(bookDto.getIsbn()).orElseThrow().getTitle()).isEqualTo("Title 0");
+    }
+
+    /**
+     * Sends the writes from parallel threads, starting each one staggerMillis after the previous so that they
+     * reach the queue in order but still within one max-delay window.
+     */
+    private List<MockHttpServletResponse> putConcurrently(int count, IntFunction<String> isbn,
+                                                          IntFunction<String> title, String ifMatch,
+                                                          long staggerMillis) throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(count)) {
+            List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                BookDto bookDto = BookDto.builder().isbn(isbn.apply(i)).title(title.apply(i)).build();
+                MockHttpServletRequestBuilder request = MockMvcRequestBuilders.put("/books/" + bookDto.getIsbn())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookDto));
+                if (ifMatch != null) {
+                    request.header("If-Match", ifMatch);
+                }
+                responses.add(executor.submit(() -> mockMvc.perform(request).andReturn().getResponse()));
+                Thread.sleep(staggerMillis);
+            }
+            List<MockHttpServletResponse> results = new ArrayList<>();
+            for (Future<MockHttpServletResponse> response : responses) {
+                results.add(response.get());
+            }
+            return results;
+        }
+    }
+
+    private static List<Integer> statuses(List<MockHttpServletResponse> responses) {
+        return responses.stream().map(MockHttpServletResponse::getStatus).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,108 @@
+package com.william.williamRestApi.controllers;
+
+import com.william.williamRestApi.TestDataUtil;
+import com.william.williamRestApi.domain.dto.BookDto;
+import com.william.williamRestApi.services.BookService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.william.williamRestApi.TestWaits.waitUntil;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "app.book-writes.group-commit.enabled=true",
+        "app.book-writes.group-commit.max-batch-size=1",
+        "app.book-writes.group-commit.queue-capacity=1"
+})
+@ExtendWith(SpringExtension.class)
+@Sql(
+        scripts = "/cleanup.sql",
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD
+)
+@AutoConfigureMockMvc
+public class BookWriteQueueFullIntegrationTest {
+
+    private MockMvc mockMvc;
+    private ObjectMapper objectMapper;
+    private BookService bookService;
+    private MeterRegistry meterRegistry;
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public BookWriteQueueFullIntegrationTest(MockMvc mockMvc, ObjectMapper objectMapper, BookService bookService,
+                                             MeterRegistry meterRegistry, DataSource dataSource,
+                                             JdbcTemplate jdbcTemplate) {
+        this.mockMvc = mockMvc;
+        this.objectMapper = objectMapper;
+        this.bookService = bookService;
+        this.meterRegistry = meterRegistry;
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Test
+    public void testThatAWriteToAFullQueueIsRejectedWithHttpStatus429() throws Exception {
+        bookService.createUpdateBook("isbn-1", TestDataUtil.createTestBookA(null));
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(2);
+             Connection connection = dataSource.getConnection()) {
+            // Hold the row lock so the flusher blocks on the first write and the second one stays queued.
+            connection.setAutoCommit(false);
+            try (PreparedStatement lock = connection.prepareStatement(
+                    "SELECT 1 FROM books WHERE isbn = 'isbn-1' FOR UPDATE")) {
+                lock.execute();
+            }
+
+            Future<Integer> flushing = executor.submit(() -> put("Title 1"));
+            waitUntil("the first write blocks on the row lock", () -> jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM pg_locks WHERE NOT granted", Integer.class) > 0);
+            Future<Integer> queued = executor.submit(() -> put("Title 2"));
+            waitUntil("the second write is queued", () -> meterRegistry.get("books.write.queue.size").gauge().value() == 1);
+
+            mockMvc.perform(
+                    request("Title 3")
+            ).andExpect(
+                    MockMvcResultMatchers.status().isTooManyRequests()
+            ).andExpect(
+                    MockMvcResultMatchers.header().string("Retry-After", "1")
+            );
+
+            connection.rollback();
+            assertThat(flushing.get()).isEqualTo(200);
+            assertThat(queued.get()).isEqualTo(200);
+        }
+        assertThat(bookService.findOne("isbn-1").orElseThrow().getTitle()).isEqualTo("Title 2");
+    }
+
+    private int put(String title) throws Exception {
+        return mockMvc.perform(request(title)).andReturn().getResponse().getStatus();
+    }
+
+    private MockHttpServletRequestBuilder request(String title) throws Exception {
+        BookDto bookDto = BookDto.builder().isbn("isbn-1").title(title).build();
+        return MockMvcRequestBuilders.put("/books/isbn-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(bookDto));
+    }
+}
@@ -0,0 +1,125 @@
+package com.william.williamRestApi.controllers;
+
+import com.william.williamRestApi.TestDataUtil;
+import com.william.williamRestApi.domain.dto.BookDto;
+import com.william.williamRestApi.services.BookService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.william.williamRestApi.TestWaits.waitUntil;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "app.concurrency-limit.enabled=true",
+        "app.concurrency-limit.write.initial-limit=1",
+        "app.concurrency-limit.write.max-limit=1"
+})
+@ExtendWith(SpringExtension.class)
+@Sql(
+        scripts = "/cleanup.sql",
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD
+)
+@AutoConfigureMockMvc
+public class ConcurrencyLimitIntegrationTest {
+
+    private MockMvc mockMvc;
+    private BookService bookService;
+    private MeterRegistry meterRegistry;
+    private ObjectMapper objectMapper;
+    private DataSource dataSource;
+
+    @Autowired
+    public ConcurrencyLimitIntegrationTest(MockMvc mockMvc, BookService bookService, MeterRegistry meterRegistry,
+                                           ObjectMapper objectMapper, DataSource dataSource) {
+        this.mockMvc = mockMvc;
+        this.bookService = bookService;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.dataSource = dataSource;
+    }
+
+    @Test
+    public void testThatRequestsWithinTheLimitPassAndReleaseTheirSlot() throws Exception {
+        bookService.createUpdateBook("isbn-1", TestDataUtil.createTestBookA(null));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/isbn-1")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        );
+
+        assertThat(meterRegistry.get("http.server.concurrency.limit").tag("class", "read").gauge().value())
+                .isGreaterThanOrEqualTo(1);
+        assertThat(meterRegistry.get("http.server.concurrency.in.flight").tag("class", "read").gauge().value())
+                .isZero();
+        assertThat(meterRegistry.get("http.server.concurrency.rejected").tag("class", "read").counter().count())
+                .isZero();
+    }
+
+    @Test
+    public void testThatAWriteOverAFullLimitIsRejectedRightAwayWhileReadsStillPass() throws Exception {
+        bookService.createUpdateBook("isbn-1", TestDataUtil.createTestBookA(null));
+        String json = objectMapper.writeValueAsString(BookDto.builder().isbn("isbn-1").title("UPDATED").build());
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor();
+             Connection connection = dataSource.getConnection()) {
+            // Hold the row lock so the first write keeps the only write slot until the test lets it go.
+            connection.setAutoCommit(false);
+            try (PreparedStatement lock = connection.prepareStatement(
+                    "SELECT 1 FROM books WHERE isbn = 'isbn-1' FOR UPDATE")) {
+                lock.execute();
+            }
+            Future<Integer> holding = executor.submit(() -> mockMvc.perform(
+                    MockMvcRequestBuilders.put("/books/isbn-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(json)
+            ).andReturn().getResponse().getStatus());
+            waitUntil("the first write holds the write slot", () -> meterRegistry
+                    .get("http.server.concurrency.in.flight").tag("class", "write").gauge().value() == 1);
+
+            long start = System.nanoTime();
+            mockMvc.perform(
+                    MockMvcRequestBuilders.put("/books/isbn-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(json)
+            ).andExpect(
+                    MockMvcResultMatchers.status().isServiceUnavailable()
+            ).andExpect(
+                    MockMvcResultMatchers.header().string("Retry-After", "1")
+            );
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+            assertThat(meterRegistry.get("http.server.concurrency.rejected").tag("class", "write").counter().count())
+                    .isEqualTo(1);
+
+            mockMvc.perform(
+                    MockMvcRequestBuilders.get("/books/isbn-1")
+            ).andExpect(
+                    MockMvcResultMatchers.status().isOk()
+            );
+
+            connection.rollback();
+            assertThat(holding.get()).isEqualTo(200);
+        }
+        assertThat(meterRegistry.get("http.server.concurrency.in.flight").tag("class", "write").gauge().value())
+                .isZero();
+    }
+}
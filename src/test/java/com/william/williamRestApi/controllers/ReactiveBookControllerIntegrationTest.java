@@ -0,0 +1,96 @@
+package com.william.williamRestApi.controllers;
+
+import com.william.williamRestApi.TestDataUtil;
+import com.william.williamRestApi.services.BookService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@Sql(
+        scripts = "/cleanup.sql",
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD
+)
+@AutoConfigureMockMvc
+public class ReactiveBookControllerIntegrationTest {
+
+    private MockMvc mockMvc;
+    private BookService bookService;
+
+    @Autowired
+    public ReactiveBookControllerIntegrationTest(MockMvc mockMvc, BookService bookService) {
+        this.mockMvc = mockMvc;
+        this.bookService = bookService;
+    }
+
+    @Test
+    public void testThatListBooksV2ReturnsBooksAfterIsbn() throws Exception {
+        bookService.createUpdateBook("isbn-1", TestDataUtil.createTestBookA(null));
+        bookService.createUpdateBook("isbn-2", TestDataUtil.createTestBookB(null));
+
+        MvcResult result = mockMvc.perform(
+                MockMvcRequestBuilders.get("/v2/books?after=isbn-1")
+                        .accept(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.request().asyncStarted()
+        ).andReturn();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.asyncDispatch(result)
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.length()").value(1)
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$[0].isbn").value("isbn-2")
+        );
+    }
+
+    @Test
+    public void testThatGetBookV2ReturnsHttpStatus404WhenBookDoesNotExist() throws Exception {
+        MvcResult result = mockMvc.perform(
+                MockMvcRequestBuilders.get("/v2/books/missing")
+
+        ).andExpect(
+                MockMvcResultMatchers.request().asyncStarted()
+        ).andReturn();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.asyncDispatch(result)
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isNotFound()
+        );
+    }
+
+    @Test
+    public void testThatListV2RejectsAPageSizeOverTheMaximum() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/v2/books?size=" + (CursorCodec.MAX_PAGE_SIZE + 1))
+                        .accept(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/v2/authors?size=" + (CursorCodec.MAX_PAGE_SIZE + 1))
+                        .accept(MediaType.APPLICATION_JSON)
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isBadRequest()
+        );
+    }
+}
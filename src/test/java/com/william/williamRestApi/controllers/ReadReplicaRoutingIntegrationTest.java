@@ -0,0 +1,110 @@
+package com.william.williamRestApi.controllers;
+
+import com.william.williamRestApi.TestDataUtil;
+import com.william.williamRestApi.config.ReadYourWritesFilter;
+import com.william.williamRestApi.config.ReplicaRoutingDataSource;
+import com.william.williamRestApi.domain.entities.AuthorEntity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Needs a streaming replica (docker compose --profile replica up) and DB_REPLICA_URL pointing at it.
+ */
+@SpringBootTest(properties = "app.datasource.replica.url=${DB_REPLICA_URL}")
+@EnabledIfEnvironmentVariable(named = "DB_REPLICA_URL", matches = ".+")
+@ExtendWith(SpringExtension.class)
+@Sql(
+        scripts = "/cleanup.sql",
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD
+)
+@AutoConfigureMockMvc
+public class ReadReplicaRoutingIntegrationTest {
+
+    private static final String IN_RECOVERY = "SELECT pg_is_in_recovery()";
+
+    private MockMvc mockMvc;
+    private ObjectMapper objectMapper;
+    private JdbcTemplate jdbcTemplate;
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    public ReadReplicaRoutingIntegrationTest(MockMvc mockMvc, ObjectMapper objectMapper, JdbcTemplate jdbcTemplate,
+                                             PlatformTransactionManager transactionManager) {
+        this.mockMvc = mockMvc;
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+    }
+
+    @Test
+    public void testThatReadOnlyTransactionsRunOnTheReplica() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+
+        Boolean readOnlyInRecovery = readOnly.execute(status -> jdbcTemplate.queryForObject(IN_RECOVERY, Boolean.class));
+        Boolean readWriteInRecovery = readWrite.execute(status -> jdbcTemplate.queryForObject(IN_RECOVERY, Boolean.class));
+        Boolean autoCommitInRecovery = jdbcTemplate.queryForObject(IN_RECOVERY, Boolean.class);
+
+        assertThat(readOnlyInRecovery).isTrue();
+        assertThat(readWriteInRecovery).isFalse();
+        assertThat(autoCommitInRecovery).isFalse();
+    }
+
+    @Test
+    public void testThatPinnedReadsRunOnThePrimary() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        ReplicaRoutingDataSource.pinToPrimary();
+        try {
+            Boolean inRecovery = readOnly.execute(status -> jdbcTemplate.queryForObject(IN_RECOVERY, Boolean.class));
+            assertThat(inRecovery).isFalse();
+        } finally {
+            ReplicaRoutingDataSource.unpin();
+        }
+    }
+
+    @Test
+    public void testThatAuthorIsReadBackRightAfterCreation() throws Exception {
+        AuthorEntity testAuthorA = TestDataUtil.createTestAuthorA();
+        testAuthorA.setId(null);
+        String authorJson = objectMapper.writeValueAsString(testAuthorA);
+
+        MockHttpServletResponse created = mockMvc.perform(
+                MockMvcRequestBuilders.post("/authors")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(authorJson)
+        ).andExpect(
+                MockMvcResultMatchers.cookie().exists(ReadYourWritesFilter.COOKIE_NAME)
+        ).andReturn().getResponse();
+
+        Long id = objectMapper.readTree(created.getContentAsString()).get("id").asLong();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/authors/" + id)
+                        .cookie(created.getCookie(ReadYourWritesFilter.COOKIE_NAME))
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        ).andExpect(
+                MockMvcResultMatchers.jsonPath("$.name").value(testAuthorA.getName())
+        );
+    }
+}
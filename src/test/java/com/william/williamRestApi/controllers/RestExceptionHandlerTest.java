@@ -0,0 +1,53 @@
+package com.william.williamRestApi.controllers;
+
+import com.william.williamRestApi.services.PreconditionFailedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+public class RestExceptionHandlerTest {
+
+    private MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new ConflictingController())
+            .setControllerAdvice(new RestExceptionHandler())
+            .build();
+
+    @Test
+    public void testThatAConflictWithoutAPreconditionReturnsHttpStatus409() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.put("/unconditional")
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isConflict()
+        );
+    }
+
+    @Test
+    public void testThatAFailedPreconditionReturnsHttpStatus412() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.put("/conditional")
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isPreconditionFailed()
+        );
+    }
+
+    @RestController
+    static class ConflictingController {
+
+        @PutMapping("/unconditional")
+        public HttpStatus unconditional() {
+            throw new ObjectOptimisticLockingFailureException("authors", 1L);
+        }
+
+        @PutMapping("/conditional")
+        public HttpStatus conditional() {
+            throw new PreconditionFailedException("Author 1 is no longer at version 0");
+        }
+    }
+}
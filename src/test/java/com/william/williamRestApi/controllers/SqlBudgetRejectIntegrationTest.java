@@ -0,0 +1,58 @@
+package com.william.williamRestApi.controllers;
+
+import com.william.williamRestApi.TestDataUtil;
+import com.william.williamRestApi.domain.entities.AuthorEntity;
+import com.william.williamRestApi.services.AuthorService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import tools.jackson.databind.ObjectMapper;
+
+@SpringBootTest(properties = {"app.sql-budget.mode=reject", "app.sql-budget.default=1"})
+@ExtendWith(SpringExtension.class)
+@Sql(
+        scripts = "/cleanup.sql",
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD
+)
+@AutoConfigureMockMvc
+public class SqlBudgetRejectIntegrationTest {
+
+    private MockMvc mockMvc;
+    private AuthorService authorService;
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    public SqlBudgetRejectIntegrationTest(MockMvc mockMvc, AuthorService authorService, ObjectMapper objectMapper) {
+        this.mockMvc = mockMvc;
+        this.authorService = authorService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Test
+    public void testThatARequestOverItsBudgetIsRejectedWithTheBudgetInTheBody() throws Exception {
+        AuthorEntity author = TestDataUtil.createTestAuthorA();
+        author.setId(null);
+        AuthorEntity savedAuthor = authorService.saveAuthor(author);
+        AuthorEntity updatedAuthor = TestDataUtil.createTestAuthorB();
+        updatedAuthor.setId(savedAuthor.getId());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.put("/authors/" + savedAuthor.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updatedAuthor))
+
+        ).andExpect(
+                MockMvcResultMatchers.status().isInternalServerError()
+        ).andExpect(
+                MockMvcResultMatchers.content().string("SQL budget of 1 statements exceeded")
+        );
+    }
+}
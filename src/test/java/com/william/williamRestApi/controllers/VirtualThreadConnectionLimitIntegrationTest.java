@@ -0,0 +1,87 @@
+package com.william.williamRestApi.controllers;
+
+import com.william.williamRestApi.TestDataUtil;
+import com.william.williamRestApi.services.BookService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+@SpringBootTest(properties = {
+        "spring.threads.virtual.enabled=true",
+        "spring.datasource.hikari.maximum-pool-size=1",
+        "app.db-limiter.acquire-timeout=200ms"
+})
+@ExtendWith(SpringExtension.class)
+@Sql(
+        scripts = "/cleanup.sql",
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD
+)
+@AutoConfigureMockMvc
+public class VirtualThreadConnectionLimitIntegrationTest {
+
+    private MockMvc mockMvc;
+    private BookService bookService;
+    private DataSource dataSource;
+
+    @Autowired
+    public VirtualThreadConnectionLimitIntegrationTest(MockMvc mockMvc, BookService bookService,
+                                                       DataSource dataSource) {
+        this.mockMvc = mockMvc;
+        this.bookService = bookService;
+        this.dataSource = dataSource;
+    }
+
+    @Test
+    public void testThatOnlyRequestsNeedingAConnectionWaitForOne() throws Exception {
+        bookService.createUpdateBook("isbn-1", TestDataUtil.createTestBookA(null));
+        bookService.createUpdateBook("isbn-2", TestDataUtil.createTestBookB(null));
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/isbn-1")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        );
+
+        try (Connection held = dataSource.getConnection()) {
+            mockMvc.perform(
+                    MockMvcRequestBuilders.get("/books/isbn-2")
+            ).andExpect(
+                    MockMvcResultMatchers.status().isServiceUnavailable()
+            ).andExpect(
+                    MockMvcResultMatchers.header().string("Retry-After", "1")
+            );
+
+            // A cached book and the R2DBC reads take no JDBC connection.
+            mockMvc.perform(
+                    MockMvcRequestBuilders.get("/books/isbn-1")
+            ).andExpect(
+                    MockMvcResultMatchers.status().isOk()
+            );
+            MvcResult v2 = mockMvc.perform(
+                    MockMvcRequestBuilders.get("/v2/books/isbn-2").accept(MediaType.APPLICATION_JSON)
+            ).andReturn();
+            mockMvc.perform(
+                    MockMvcRequestBuilders.asyncDispatch(v2)
+            ).andExpect(
+                    MockMvcResultMatchers.status().isOk()
+            );
+        }
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/books/isbn-2")
+        ).andExpect(
+                MockMvcResultMatchers.status().isOk()
+        );
+    }
+}
@@ -0,0 +1,92 @@
+package com.william.williamRestApi.services.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BookSearchIndexTest {
+
+    private BookSearchIndex index = new BookSearchIndex();
+
+    @Test
+    public void testThatRepeatedUpdatesDoNotGrowTheDocTable() {
+        for (int round = 0; round < 1000; round++) {
+            index.put(books(10, "Revision " + round));
+        }
+
+        assertThat(index.docCount()).isLessThanOrEqualTo(20);
+        assertThat(index.search("revision 999", 100)).hasSize(10);
+        assertThat(index.search("revision 998", 100)).isEmpty();
+    }
+
+    @Test
+    public void testThatCompactionKeepsLiveBooksAndTheirOrder() {
+        index.put(books(10, "Zephyrine"));
+        for (int i = 0; i < 5; i++) {
+            index.remove("isbn-" + i);
+        }
+
+        assertThat(index.docCount()).isEqualTo(5);
+        // Ties go to the more recently indexed book.
+        assertThat(index.search("zephyr", 10)).containsExactly("isbn-9", "isbn-8", "isbn-7", "isbn-6", "isbn-5");
+
+        index.put(List.of(new BookSearchIndex.IndexedBook("isbn-5", "Gardens", null)));
+        assertThat(index.search("zephyr", 10)).containsExactly("isbn-9", "isbn-8", "isbn-7", "isbn-6");
+        assertThat(index.search("gardens", 10)).containsExactly("isbn-5");
+    }
+
+    @Test
+    public void testThatABulkLoadIsNotCompactedUntilItFinishes() {
+        index.put(books(4, "Autumn"));
+        index.beginBuild();
+        index.addScanned(List.of(new BookSearchIndex.IndexedBook("isbn-scanned", "Autumn Leaves", null)));
+        for (int i = 0; i < 4; i++) {
+            index.remove("isbn-" + i);
+        }
+        assertThat(index.docCount()).isEqualTo(5);
+
+        index.finishBuild();
+
+        assertThat(index.docCount()).isEqualTo(1);
+        assertThat(index.search("autumn", 10)).containsExactly("isbn-scanned");
+    }
+
+    @Test
+    public void testThatManySmallWritesKeepFewSegments() {
+        String[] authors = {"Alpha", "Bravo", "Charlie", "Delta", "Echo", "Foxtrot", "Golf"};
+        for (int i = 0; i < 5000; i++) {
+            index.put(List.of(new BookSearchIndex.IndexedBook("isbn-" + i, "Volume " + i, authors[i % 7])));
+        }
+
+        assertThat(index.segmentCount()).isLessThanOrEqualTo(20);
+        assertThat(index.search("volume 4321", 10)).containsExactly("isbn-4321");
+        assertThat(index.search("bravo", 1000)).hasSize(715);
+    }
+
+    @Test
+    public void testThatReadersNeverSeeTwoDocsOfOneBook() throws Exception {
+        index.put(books(10, "Zephyrine"));
+        Thread writer = Thread.ofPlatform().start(() -> {
+            for (int round = 0; round < 20000; round++) {
+                index.put(List.of(new BookSearchIndex.IndexedBook("isbn-0", "Zephyrine", "Author 0")));
+            }
+        });
+        while (writer.isAlive()) {
+            List<String> isbns = index.search("zephyr", 10);
+            assertThat(isbns).doesNotHaveDuplicates();
+        }
+        writer.join();
+        assertThat(index.search("zephyr", 10)).hasSize(10);
+    }
+
+    private static List<BookSearchIndex.IndexedBook> books(int count, String title) {
+        List<BookSearchIndex.IndexedBook> books = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            books.add(new BookSearchIndex.IndexedBook("isbn-" + i, title, "Author " + i));
+        }
+        return books;
+    }
+}